@@ -0,0 +1,25 @@
+package maze;
+
+/**
+ * Cell storage using one byte per cell
+ * @author MohamedBenRahuma
+ */
+class ByteCellStore implements CellStore {
+    private final byte[] cells;
+
+    ByteCellStore(byte[] cells){
+        this.cells = cells;
+    }
+
+    public int get(int i){
+        return cells[i];
+    }
+
+    public void set(int i, int type){
+        cells[i] = (byte)type;
+    }
+
+    public int size(){
+        return cells.length;
+    }
+}
@@ -0,0 +1,38 @@
+package maze;
+
+/**
+ * Storage for the cells of a Maze, row-major from the top row. Each cell holds the ordinal of its Tile.Type
+ * @author MohamedBenRahuma
+ */
+interface CellStore {
+
+    /**
+     * returns the Tile.Type ordinal of cell 'i'
+     * @param i
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int get(int i);
+
+    /**
+     * sets cell 'i' to the Tile.Type ordinal 'type'
+     * @param i
+     * @param type
+     * @author MohamedBenRahuma
+     */
+    void set(int i, int type);
+
+    /**
+     * returns the number of cells
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int size();
+
+    /**
+     * releases any memory held outside the Java heap, the store must not be used afterwards
+     * @author MohamedBenRahuma
+     */
+    default void close(){
+    }
+}
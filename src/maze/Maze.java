@@ -1,6 +1,13 @@
 package maze;
 import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Class for main maze logic, provides operations for creating Mazes from txt files, 
@@ -9,7 +16,7 @@ import java.io.*;
  * 
  */
 
-public class Maze implements Serializable{
+public class Maze implements Serializable, Closeable{
 
     /**
      * Enum representing the directions that can be traversed in the Maze
@@ -17,6 +24,20 @@ public class Maze implements Serializable{
      */
     public enum Direction{
         NORTH, SOUTH, EAST, WEST;
+
+        /**
+         * Returns the direction pointing the opposite way
+         * @return
+         * @author MohamedBenRahuma
+         */
+        public Direction opposite(){
+            switch(this){
+                case NORTH: return SOUTH;
+                case SOUTH: return NORTH;
+                case EAST: return WEST;
+                default: return EAST;
+            }
+        }
     }
 
     /**
@@ -46,17 +67,88 @@ public class Maze implements Serializable{
         }
     }
 
-    private Tile entrance;
-    private Tile exit;
-    private List<List<Tile>> tiles = new ArrayList<>();
+    private static final Tile.Type[] TYPES = Tile.Type.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final long MAX_MAPPING = 1 << 30;
+    private static final byte[] SYMBOLS = {'.', 'e', 'x', '#'};
+
+    /**
+     * Binary maze format: a header of six big-endian ints (magic, version, width, height,
+     * entrance index, exit index) followed by the cells, row-major from the top row, 
+     * packed four to a byte with cell i in bits 2*(i%4) and 2*(i%4)+1 of byte i/4
+     */
+    static final int BINARY_MAGIC = 0x4D415A42;
+    static final int BINARY_VERSION = 1;
+    static final int BINARY_HEADER = 24;
+
+    // mazes saved before writeObject, with a list of Tile objects per row, still read (see readObject)
+    private static final long serialVersionUID = -645701088747071690L;
+
+    private transient Tile entrance;
+    private transient Tile exit;
+    private transient int width;
+    private transient int height;
+    private transient CellStore cells = new ByteCellStore(new byte[0]);
+    private transient List<List<Tile>> tiles = new Rows();
+    private transient byte[] passable;
 
     private Maze(){
 
     }
 
+    /**
+     * List view over the rows of the Maze, top row first, backed by the cell store
+     * @author MohamedBenRahuma
+     */
+    private class Rows extends AbstractList<List<Tile>> implements RandomAccess{
+        public List<Tile> get(int i){
+            if(i < 0 || i >= height)throw new IndexOutOfBoundsException("Row: " + i);
+            return new Row(i);
+        }
+
+        public int size(){
+            return height;
+        }
+    }
+
+    /**
+     * List view over a single row of the Maze, backed by the cell store
+     * @author MohamedBenRahuma
+     */
+    private class Row extends AbstractList<Tile> implements RandomAccess{
+        private final int row;
+
+        private Row(int row){
+            this.row = row;
+        }
+
+        public Tile get(int j){
+            return tileAt(cellIndex(j));
+        }
+
+        public Tile set(int j, Tile t){
+            int i = cellIndex(j);
+            Tile previous = tileAt(i);
+            cells.set(i, t.getType().ordinal());
+            updatePassable(i);
+            t.bind(Maze.this, i);
+            return previous;
+        }
+
+        public int size(){
+            return width;
+        }
+
+        private int cellIndex(int j){
+            if(j < 0 || j >= width)throw new IndexOutOfBoundsException("Column: " + j);
+            return row * width + j;
+        }
+    }
+
     /**
      * Maze objects created from reading txt files 
      * Also validity of text file is checked (ie whether it is representing a valid Maze)
+     * The file is read once, validation and building the grid happen in the same pass
      * @param path
      * @return
      * @throws InvalidMazeException
@@ -65,38 +157,13 @@ public class Maze implements Serializable{
      * @author MohamedBenRahuma
      */
     public static Maze fromTxt(String path)throws InvalidMazeException, RaggedMazeException,IllegalArgumentException{
-        if(!checkForValidMaze(path))throw new InvalidMazeException(); 
-        if(!checkForEntrance(path))throw new NoEntranceException();
-        if(!checkForExit(path))throw new NoExitException(); 
-        Maze m = new Maze();
-        Tile entrance = null; 
-        Tile exit = null; 
-        try(BufferedReader reader = new BufferedReader(new FileReader(path))){
-            String line = "";
-            while(line != null){
-                List<Tile> l = new ArrayList<>();
-                line = reader.readLine();
-                if(line != null){
-                    for(int i=0; i<line.length(); i++){
-                        Tile t = Tile.fromChar(line.charAt(i));
-                        if(t.getType() == Tile.Type.ENTRANCE){
-                            entrance = t;
-                        }
-                        if(t.getType() == Tile.Type.EXIT){
-                            exit = t;
-                        }
-                        l.add(t);
-                    }
-                    m.tiles.add(l);
-                }
+        MazeParser parser = new MazeParser(new File(path).length());
+        try(InputStream in = new FileInputStream(path)){
+            byte[] buf = new byte[8192];
+            int len;
+            while(!parser.isInvalid() && (len = in.read(buf)) != -1){
+                parser.parse(buf, len);
             }
-            m.setEntrance(entrance);
-            m.setExit(exit);
-            if(isRagged(m.tiles)){
-                throw new RaggedMazeException(); 
-            }
-            return m;
-            
         }
         catch(FileNotFoundException f){
             System.out.println(f.getMessage());
@@ -104,8 +171,290 @@ public class Maze implements Serializable{
         catch (IOException e){
             System.out.println(e.getMessage());
         }
+        return fromParser(parser);
+    }
+
+    /**
+     * Maze objects created from reading txt files through a memory mapping of the file, 
+     * the mapped bytes are scanned straight into the grid without decoding lines into Strings.
+     * Produces the same Maze, and throws the same exceptions, as fromTxt
+     * @param path
+     * @return
+     * @throws InvalidMazeException
+     * @throws RaggedMazeException
+     * @throws IllegalArgumentException
+     * @author MohamedBenRahuma
+     */
+    public static Maze fromMappedTxt(String path)throws InvalidMazeException, RaggedMazeException,IllegalArgumentException{
+        MazeParser parser = null;
+        try(FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)){
+            long size = channel.size();
+            parser = new MazeParser(size);
+            for(long pos=0; pos<size && !parser.isInvalid(); pos+=MAX_MAPPING){
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAX_MAPPING, size - pos));
+                parser.parse(buf);
+            }
+        }
+        catch (IOException e){
+            System.out.println(e.getMessage());
+        }
+        if(parser == null)parser = new MazeParser(0);
+        return fromParser(parser);
+    }
+
+    /**
+     * Maze objects created from reading files in the packed binary format written by toBinary.
+     * The file is mapped and the packed cells are copied straight from the mapping, 
+     * the Maze keeps them packed (see pack)
+     * @param path
+     * @return
+     * @throws InvalidMazeException
+     * @author MohamedBenRahuma
+     */
+    public static Maze fromBinary(String path) throws InvalidMazeException{
+        return readBinary(path, false);
+    }
+
+    /**
+     * Maze objects read from 'in' in the packed binary format written by toBinary. 
+     * Exactly the bytes of the maze are read, so 'in' can carry more data after it
+     * @param in
+     * @return
+     * @throws IOException
+     * @throws InvalidMazeException
+     * @author MohamedBenRahuma
+     */
+    public static Maze fromBinary(InputStream in) throws IOException, InvalidMazeException{
+        Maze m = new Maze();
+        m.readPacked(in);
+        return m;
+    }
+
+    /**
+     * Reads the cells, entrance and exit of this Maze from 'in' in the packed binary format written by toBinary
+     * @param in
+     * @throws IOException
+     * @throws InvalidMazeException
+     * @author MohamedBenRahuma
+     */
+    private void readPacked(InputStream in) throws IOException, InvalidMazeException{
+        DataInputStream data = new DataInputStream(in);
+        ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER);
+        data.readFully(header.array());
+        readBinaryHeader(header, Long.MAX_VALUE);
+        int n = width * height;
+        byte[] packed = new byte[(n + 3) / 4];
+        data.readFully(packed);
+        cells = PackedCellStore.read(ByteBuffer.wrap(packed), 0, n);
+        setBinaryEnds(header);
+    }
+
+    /**
+     * Maze objects created by mapping files in the packed binary format written by toBinary.
+     * The cells are used in place from the mapping, outside the Java heap, without being copied. 
+     * The mapping is read-only, so the file only needs to be readable. The first change to the Maze 
+     * copies the cells into direct memory and unmaps the file, changes are never written back to it. 
+     * Close the Maze to unmap the file
+     * @param path
+     * @return
+     * @throws InvalidMazeException
+     * @author MohamedBenRahuma
+     */
+    public static Maze mapBinary(String path) throws InvalidMazeException{
+        return readBinary(path, true);
+    }
+
+    /**
+     * Maze objects read on demand from files in the packed binary format written by toBinary, 
+     * for mazes too large to hold in memory. The cells are read in pages of 65536 cells, 
+     * and the 1024 most recently used pages are cached. Passability masks are worked out 
+     * as they are needed rather than at load. Paged mazes are read-only, close the Maze to close the file
+     * @param path
+     * @return
+     * @throws InvalidMazeException
+     * @author MohamedBenRahuma
+     */
+    public static Maze openPaged(String path) throws InvalidMazeException{
+        return openPaged(path, 1 << 16, 1024);
+    }
+
+    /**
+     * Maze objects read on demand from files in the packed binary format written by toBinary, 
+     * 'pageSize' cells at a time with at most 'cachedPages' pages held in memory
+     * @param path
+     * @param pageSize
+     * @param cachedPages
+     * @return
+     * @throws InvalidMazeException
+     * @author MohamedBenRahuma
+     */
+    public static Maze openPaged(String path, int pageSize, int cachedPages) throws InvalidMazeException{
+        FileChannel channel = null;
+        try{
+            channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+            ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER);
+            while(header.hasRemaining() && channel.read(header) != -1);
+            Maze m = new Maze();
+            m.readBinaryHeader(header, channel.size());
+            m.cells = new PagedCellStore(channel, BINARY_HEADER, m.width * m.height, pageSize, cachedPages);
+            channel = null;
+            m.setBinaryEnds(header);
+            return m;
+        }
+        catch (IOException e){
+            System.out.println(e.getMessage());
+        }
+        finally{
+            if(channel != null){
+                try{
+                    channel.close();
+                }
+                catch (IOException e){
+                    System.out.println(e.getMessage());
+                }
+            }
+        }
         return null;
-    
+    }
+
+    private static Maze readBinary(String path, boolean inPlace) throws InvalidMazeException{
+        try(FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)){
+            long size = channel.size();
+            if(size < BINARY_HEADER)throw new InvalidMazeException();
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            Maze m = new Maze();
+            m.readBinaryHeader(buf, size);
+            if(inPlace)m.cells = new OffHeapCellStore(buf, BINARY_HEADER, m.width * m.height);
+            else m.cells = PackedCellStore.read(buf, BINARY_HEADER, m.width * m.height);
+            m.setBinaryEnds(buf);
+            return m;
+        }
+        catch (IOException e){
+            System.out.println(e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Checks the header of a binary maze file of 'size' bytes, setting the dimensions of this Maze
+     * @param header
+     * @param size
+     * @throws InvalidMazeException
+     * @author MohamedBenRahuma
+     */
+    private void readBinaryHeader(ByteBuffer header, long size) throws InvalidMazeException{
+        if(size < BINARY_HEADER || header.limit() < BINARY_HEADER)throw new InvalidMazeException();
+        if(header.getInt(0) != BINARY_MAGIC)throw new InvalidMazeException();
+        if(header.getInt(4) < 1 || header.getInt(4) > BINARY_VERSION)throw new InvalidMazeException();
+        width = header.getInt(8);
+        height = header.getInt(12);
+        long n = (long)width * height;
+        if(width < 0 || height < 0 || n > Integer.MAX_VALUE - 8)throw new InvalidMazeException();
+        if(size < BINARY_HEADER + (n + 3) / 4)throw new InvalidMazeException();
+    }
+
+    /**
+     * Sets the entrance and exit from the header of a binary maze file once the cells are in place, 
+     * closing the Maze if they do not point at an entrance and an exit
+     * @param header
+     * @throws InvalidMazeException
+     * @author MohamedBenRahuma
+     */
+    private void setBinaryEnds(ByteBuffer header) throws InvalidMazeException{
+        int entrance = header.getInt(16);
+        int exit = header.getInt(20);
+        try{
+            if(entrance < 0 || entrance >= cells.size() || cells.get(entrance) != Tile.Type.ENTRANCE.ordinal())throw new NoEntranceException();
+            if(exit < 0 || exit >= cells.size() || cells.get(exit) != Tile.Type.EXIT.ordinal())throw new NoExitException();
+        }
+        catch(InvalidMazeException e){
+            close();
+            throw e;
+        }
+        setEntrance(tileAt(entrance));
+        setExit(tileAt(exit));
+    }
+
+    /**
+     * Saves the Maze to file at given path in the packed binary format read by fromBinary
+     * @param path
+     * @author MohamedBenRahuma
+     */
+    public void toBinary(String path){
+        try(OutputStream out = new BufferedOutputStream(new FileOutputStream(path), 8192)){
+            toBinary(out);
+        }
+        catch (IOException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the Maze to 'out' in the packed binary format read by fromBinary, leaving 'out' open
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    public void toBinary(OutputStream out) throws IOException{
+        ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER);
+        header.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(width).putInt(height);
+        header.putInt(entrance.getIndex()).putInt(exit.getIndex());
+        out.write(header.array());
+        byte[] buf = new byte[8192];
+        int len = 0;
+        for(int i=0; i<cells.size(); i+=4){
+            int packed = 0;
+            for(int j=0; j<4 && i+j<cells.size(); j++){
+                packed |= cells.get(i+j) << (j << 1);
+            }
+            if(len == buf.length){
+                out.write(buf, 0, len);
+                len = 0;
+            }
+            buf[len++] = (byte)packed;
+        }
+        out.write(buf, 0, len);
+    }
+
+    /**
+     * Saves the Maze to file at given path in the txt format read by fromTxt
+     * @param path
+     * @author MohamedBenRahuma
+     */
+    public void toTxt(String path){
+        try(OutputStream out = new BufferedOutputStream(new FileOutputStream(path))){
+            for(int i=0; i<cells.size(); i++){
+                out.write(SYMBOLS[cells.get(i)]);
+                if((i+1) % width == 0)out.write('\n');
+            }
+        }
+        catch (IOException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Builds a Maze from a parser that has been fed a whole file, throwing 
+     * the same exceptions, in the same order of precedence, as the checks of fromTxt
+     * @param parser
+     * @return
+     * @throws InvalidMazeException
+     * @author MohamedBenRahuma
+     */
+    private static Maze fromParser(MazeParser parser) throws InvalidMazeException{
+        parser.finish();
+        if(parser.isInvalid())throw new InvalidMazeException();
+        if(parser.getEntrance() == -1)throw new NoEntranceException();
+        if(parser.getExit() == -1)throw new NoExitException();
+        if(parser.isRagged())throw new RaggedMazeException();
+        Maze m = new Maze();
+        m.width = parser.getWidth();
+        m.height = parser.getHeight();
+        m.cells = new ByteCellStore(parser.getCells());
+        m.computePassable();
+        m.setEntrance(m.tileAt(parser.getEntrance()));
+        m.setExit(m.tileAt(parser.getExit()));
+        return m;
     }
     /**
      * Check to see if Maze to read is not ragged
@@ -205,14 +554,163 @@ public class Maze implements Serializable{
      * @author MohamedBenRahuma
      */
     public Tile getAdjacentTile(Tile t, Direction d){
-        Coordinate c = getTileLocation(t);
+        if(!tileInMaze(t))return null;
+        int n = neighbour(t.getIndex(), d);
+        return n == -1 ? null : tileAt(n);
+    }
+
+    /**
+     * Returns the index of the cell next to cell 'cell' in the given direction 'd', 
+     * or -1 if that would be outside the Maze. Cells are numbered row-major from the top row, 
+     * so the cell at Coordinate (x, y) is (getHeight()-1-y) * getWidth() + x
+     * @param cell
+     * @param d
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int neighbour(int cell, Direction d){
         switch(d){
-            case EAST : return getTileAtLocation(new Coordinate(c.getX() + 1, c.getY()));
-            case WEST: return getTileAtLocation(new Coordinate(c.getX() - 1, c.getY()));
-            case NORTH: return getTileAtLocation(new Coordinate(c.getX(), c.getY()+1));
-            case SOUTH: return getTileAtLocation(new Coordinate(c.getX(), c.getY() - 1));
+            case EAST : return cell % width + 1 < width ? cell + 1 : -1;
+            case WEST: return cell % width > 0 ? cell - 1 : -1;
+            case NORTH: return cell >= width ? cell - width : -1;
+            case SOUTH: return cell + width < cells.size() ? cell + width : -1;
         }
-        return null;
+        return -1;
+    }
+
+    /**
+     * Passes the index of each cell next to cell 'cell' to 'action', in the order of Direction.values()
+     * @param cell
+     * @param action
+     * @author MohamedBenRahuma
+     */
+    public void forEachNeighbour(int cell, IntConsumer action){
+        if(cell >= width)action.accept(cell - width);
+        if(cell + width < cells.size())action.accept(cell + width);
+        if(cell % width + 1 < width)action.accept(cell + 1);
+        if(cell % width > 0)action.accept(cell - 1);
+    }
+
+    /**
+     * Returns the passability mask of cell 'cell': bit d.ordinal() is set for each Direction d 
+     * in which the neighbouring cell is inside the Maze and navigable. 
+     * Masks are computed once when the Maze is loaded for Mazes stored a byte per cell, and worked out 
+     * as they are needed for packed, off-heap, mapped and paged Mazes, where a table would outweigh the cells
+     * @param cell
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getPassableMask(int cell){
+        if(passable == null)return passableMask(cell);
+        return (passable[cell >>> 1] >>> ((cell & 1) << 2)) & 15;
+    }
+
+    private int passableMask(int cell){
+        int mask = 0;
+        for(Direction d: DIRECTIONS){
+            int n = neighbour(cell, d);
+            if(n != -1 && isNavigable(n))mask |= 1 << d.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Works out the passability masks of every cell, two 4 bit masks to a byte, 
+     * if the cells are stored a byte per cell
+     * @author MohamedBenRahuma
+     */
+    private void computePassable(){
+        if(!(cells instanceof ByteCellStore)){
+            passable = null;
+            return;
+        }
+        passable = new byte[(cells.size() + 1) >>> 1];
+        for(int i=0; i<cells.size(); i++){
+            passable[i >>> 1] |= passableMask(i) << ((i & 1) << 2);
+        }
+    }
+
+    /**
+     * Recomputes the masks of the neighbours of cell 'cell' after it has changed
+     * @param cell
+     * @author MohamedBenRahuma
+     */
+    private void updatePassable(int cell){
+        if(passable == null)return;
+        for(Direction d: DIRECTIONS){
+            int n = neighbour(cell, d);
+            if(n == -1)continue;
+            int shift = (n & 1) << 2;
+            passable[n >>> 1] = (byte)((passable[n >>> 1] & ~(15 << shift)) | (passableMask(n) << shift));
+        }
+    }
+
+    /**
+     * Returns the type of cell 'cell'
+     * @param cell
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public Tile.Type getType(int cell){
+        return TYPES[cells.get(cell)];
+    }
+
+    /**
+     * Checks to see if cell 'cell' is navigable, ie not a wall
+     * @param cell
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public boolean isNavigable(int cell){
+        return cells.get(cell) != Tile.Type.WALL.ordinal();
+    }
+
+    /**
+     * Returns the index of the cell of tile 't', or -1 if it is not in the Maze
+     * @param t
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int indexOf(Tile t){
+        return tileInMaze(t) ? t.getIndex() : -1;
+    }
+
+    /**
+     * Returns the tile for cell 'cell', or null if there is no such cell
+     * @param cell
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public Tile getTile(int cell){
+        if(cell < 0 || cell >= cells.size())return null;
+        return tileAt(cell);
+    }
+
+    /**
+     * Returns the width of the Maze, in tiles
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getWidth(){
+        return width;
+    }
+
+    /**
+     * Returns the height of the Maze, in tiles
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getHeight(){
+        return height;
+    }
+
+    /**
+     * Returns the number of cells in the Maze
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getCellCount(){
+        return cells.size();
     }
 
     /**
@@ -239,16 +737,19 @@ public class Maze implements Serializable{
      */
     public Tile getTileAtLocation(Coordinate c){
         int x = c.getX();
-        int y = (tiles.size()-1) - c.getY();
+        int y = (height-1) - c.getY();
+        if(x < 0 || x >= width || y < 0 || y >= height)return null;
+        return tileAt(y * width + x);
+    }
 
-        for(int i=0; i<tiles.size(); i++){
-            for(int j=0; j<tiles.get(i).size(); j++){
-                if(i == y && j == x){
-                    return tiles.get(i).get(j);
-                }
-            }
-        }
-        return null;
+    /**
+     * Returns the tile for the cell at row-major index 'i', top row first
+     * @param i
+     * @return
+     * @author MohamedBenRahuma
+     */
+    Tile tileAt(int i){
+        return Tile.forCell(TYPES[cells.get(i)], this, i);
     }
     /**
      * Returns the Coordinate of a given tile 't' in the Maze 
@@ -257,18 +758,9 @@ public class Maze implements Serializable{
      * @author MohamedBenRahuma
      */
     public Coordinate getTileLocation(Tile t){
-        for(int i=0; i<tiles.size(); i++){
-            for(int j=0; j<tiles.get(i).size(); j++){
-                if(tiles.get(i).get(j) == t){
-                    int x = j;
-                    int y = (tiles.size()-1) - i;
-                    Coordinate c = new Coordinate(x, y);
-                    return c;
-                }
-            }
-        }
-        return null;
-
+        if(!tileInMaze(t))return null;
+        int i = t.getIndex();
+        return new Coordinate(i % width, (height-1) - i / width);
     }
     /**
      * Return all the tiles in the Maze 
@@ -279,6 +771,80 @@ public class Maze implements Serializable{
         return tiles;
     }
 
+    /**
+     * Switches the Maze to packed storage, 2 bits per cell instead of a byte. 
+     * Tiles already handed out stay valid, and all queries work the same on a packed Maze. 
+     * The previous storage is closed, so a paged or mapped Maze lets go of its file
+     * @author MohamedBenRahuma
+     */
+    public void pack(){
+        if(isPacked())return;
+        CellStore previous = cells;
+        cells = PackedCellStore.copyOf(previous);
+        passable = null;
+        previous.close();
+    }
+
+    /**
+     * Checks to see if the Maze uses packed storage
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public boolean isPacked(){
+        return cells instanceof PackedCellStore;
+    }
+
+    /**
+     * Moves the cells of the Maze outside the Java heap, packed 2 bits per cell into direct memory, 
+     * so that very large mazes add nothing for the garbage collector to trace. 
+     * Tiles already handed out stay valid, and the previous storage is closed. Close the Maze to free the memory
+     * @author MohamedBenRahuma
+     */
+    public void moveOffHeap(){
+        if(isOffHeap())return;
+        CellStore previous = cells;
+        cells = OffHeapCellStore.copyOf(previous);
+        passable = null;
+        previous.close();
+    }
+
+    /**
+     * Checks to see if the cells of the Maze are held outside the Java heap
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public boolean isOffHeap(){
+        return cells instanceof OffHeapCellStore;
+    }
+
+    /**
+     * Returns the page cache statistics of a Maze opened with openPaged, or null for other Mazes
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public PageCacheStats getPageCacheStats(){
+        if(!(cells instanceof PagedCellStore))return null;
+        return ((PagedCellStore)cells).getStats();
+    }
+
+    /**
+     * Releases the cells of the Maze, freeing off-heap memory, unmapping or closing the file straight away. 
+     * A closed Maze is empty, it has no tiles, no entrance or exit, and all lookups return null. 
+     * Off-heap memory is freed straight away rather than by the garbage collector, so the Maze must not 
+     * be closed while another thread is reading it, eg a ParallelRouteFinder solving it: the read 
+     * would touch freed memory and can crash the JVM rather than throw
+     * @author MohamedBenRahuma
+     */
+    public void close(){
+        cells.close();
+        cells = new ByteCellStore(new byte[0]);
+        entrance = null;
+        exit = null;
+        passable = null;
+        width = 0;
+        height = 0;
+    }
+
     /**
      * Checks to see if given tile is in the Maze 
      * @param tile
@@ -286,10 +852,7 @@ public class Maze implements Serializable{
      * @author MohamedBenRahuma
      */
     public boolean tileInMaze(Tile tile){
-        for(List<Tile> l: tiles){
-            if(l.contains(tile))return true; 
-        }
-        return false; 
+        return tile != null && tile.getMaze() == this && tile.getIndex() >= 0 && tile.getIndex() < cells.size();
     }
 
     /**
@@ -326,24 +889,113 @@ public class Maze implements Serializable{
         }
         
     }
+    /**
+     * Serialises the Maze as its packed binary form (see toBinary) rather than field by field
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException{
+        out.defaultWriteObject();
+        toBinary(out);
+    }
+
+    /**
+     * Reads a Maze written by writeObject, or one saved before it with a list of Tile objects per row, 
+     * whose tiles are placed in this Maze so objects saved alongside it can find their cells
+     * @param in
+     * @throws IOException
+     * @throws ClassNotFoundException
+     * @author MohamedBenRahuma
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException{
+        ObjectInputStream.GetField fields = in.readFields();
+        tiles = new Rows();
+        if(fields.getObjectStreamClass().getField("tiles") == null){
+            try{
+                readPacked(in);
+            }
+            catch(InvalidMazeException e){
+                throw new InvalidObjectException("Invalid Maze");
+            }
+            return;
+        }
+        List<List<Tile>> rows = (List<List<Tile>>)fields.get("tiles", null);
+        if(rows == null)throw new InvalidObjectException("Missing tiles");
+        height = rows.size();
+        width = height == 0 ? 0 : rows.get(0).size();
+        byte[] types = new byte[width * height];
+        for(int i=0, cell=0; i<height; i++){
+            List<Tile> row = rows.get(i);
+            if(row.size() != width)throw new InvalidObjectException("Ragged Maze");
+            for(Tile t : row){
+                types[cell] = (byte)t.getType().ordinal();
+                t.bind(this, cell++);
+            }
+        }
+        cells = new ByteCellStore(types);
+        computePassable();
+        entrance = (Tile)fields.get("entrance", null);
+        exit = (Tile)fields.get("exit", null);
+        if(!tileInMaze(entrance) || !tileInMaze(exit))throw new InvalidObjectException("Missing entrance or exit");
+    }
+
+    /**
+     * Writes the string representation of the Maze to 'out', a row at a time in a single pass
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    public void render(Appendable out) throws IOException{
+        render(out, cell -> 0);
+    }
+
+    /**
+     * Writes the string representation of the Maze to 'out', a row at a time in a single pass. 
+     * 'symbols' gives the character to draw for a cell, or 0 to draw the tile itself
+     * @param out
+     * @param symbols
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    public void render(Appendable out, IntUnaryOperator symbols) throws IOException{
+        for(int i=0, cell=0; i<height; i++){
+            out.append(Integer.toString((height-1) - i)).append('\t');
+            for(int j=0; j<width; j++, cell++){
+                int symbol = symbols.applyAsInt(cell);
+                out.append(symbol != 0 ? (char)symbol : (char)SYMBOLS[cells.get(cell)]).append(' ');
+            }
+            out.append('\n');
+        }
+        out.append("\n\t");
+        for(int i=0; i<width; i++){
+            out.append(Integer.toString(i)).append(' ');
+        }
+    }
+
+    /**
+     * Writes the string representation of the Maze to 'out' and flushes it
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    public void writeTo(Writer out) throws IOException{
+        render(out);
+        out.flush();
+    }
+
     /**
      * Returns string representation of the Maze
      */
     public String toString(){
-        String res = "";
-        for(int i=0; i<tiles.size(); i++){
-            for(int j=0; j<tiles.get(i).size(); j++){
-                if(j==0)res += (tiles.size()-1) - i + "\t";
-                res += tiles.get(i).get(j).toString() + " ";
-                if(j == tiles.get(i).size()-1){
-                    res += "\n";
-                }
-            }
+        StringBuilder res = new StringBuilder(height * (width * 2 + 8) + width * 4 + 2);
+        try{
+            render(res);
         }
-        res += "\n\t";
-        for(int i=0; i<tiles.get(0).size(); i++){
-            res += i + " ";
+        catch(IOException e){
+            throw new UncheckedIOException(e);
         }
-        return res;
+        return res.toString();
     }
 }
@@ -0,0 +1,50 @@
+package maze;
+
+/**
+ * Converts maze files between the txt format and the packed binary format.
+ * Files ending in .txt are converted to binary, anything else is read as binary and converted to txt
+ * @author MohamedBenRahuma
+ */
+public class MazeConverter {
+
+    private MazeConverter(){
+
+    }
+
+    /**
+     * Converts the maze file at 'from' and writes it to 'to'
+     * @param from
+     * @param to
+     * @throws InvalidMazeException
+     * @author MohamedBenRahuma
+     */
+    public static void convert(String from, String to) throws InvalidMazeException{
+        if(from.endsWith(".txt")){
+            Maze.fromMappedTxt(from).toBinary(to);
+        }
+        else{
+            Maze m = Maze.fromBinary(from);
+            if(m != null)m.toTxt(to);
+        }
+    }
+
+    /**
+     * Converts each pair of paths given as args, eg MazeConverter maze1.txt maze1.mzb maze2.mzb maze2.txt
+     * @param args
+     * @author MohamedBenRahuma
+     */
+    public static void main(String[] args){
+        if(args.length == 0 || args.length % 2 != 0){
+            System.out.println("Usage: MazeConverter <from> <to> [<from> <to> ...]");
+            return;
+        }
+        for(int i=0; i<args.length; i+=2){
+            try{
+                convert(args[i], args[i+1]);
+            }
+            catch(InvalidMazeException e){
+                System.out.println("Invalid Maze: " + args[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package maze;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Single pass parser for the txt maze format. Bytes are fed in as they are read,
+ * characters are validated with a lookup table, and the entrance, exit and
+ * raggedness are tracked while the grid is built, so a maze file only has to be read once.
+ * Lines end at '\n', '\r' or "\r\n", matching BufferedReader.readLine
+ * @author MohamedBenRahuma
+ */
+class MazeParser {
+    private static final byte INVALID = -1;
+    private static final byte[] TYPE_OF = new byte[256];
+
+    static {
+        Arrays.fill(TYPE_OF, INVALID);
+        TYPE_OF['.'] = (byte)Tile.Type.CORRIDOR.ordinal();
+        TYPE_OF['e'] = (byte)Tile.Type.ENTRANCE.ordinal();
+        TYPE_OF['x'] = (byte)Tile.Type.EXIT.ordinal();
+        TYPE_OF['#'] = (byte)Tile.Type.WALL.ordinal();
+    }
+
+    private byte[] cells;
+    private int size;
+    private int width;
+    private int height;
+    private int column;
+    private int entrance = -1;
+    private int exit = -1;
+    private boolean invalid;
+    private boolean ragged;
+    private boolean afterCR;
+
+    /**
+     * Creates a parser, 'capacity' is a hint for the number of cells, eg the file length
+     * @param capacity
+     * @author MohamedBenRahuma
+     */
+    MazeParser(long capacity){
+        cells = new byte[(int)Math.max(16, Math.min(capacity, Integer.MAX_VALUE - 8))];
+    }
+
+    /**
+     * Parses the first 'len' bytes of 'buf'
+     * @param buf
+     * @param len
+     * @author MohamedBenRahuma
+     */
+    void parse(byte[] buf, int len){
+        for(int i=0; i<len && !invalid; i++){
+            accept(buf[i]);
+        }
+    }
+
+    /**
+     * Parses the remaining bytes of 'buf', reading them in place without moving its position
+     * @param buf
+     * @author MohamedBenRahuma
+     */
+    void parse(ByteBuffer buf){
+        for(int i=buf.position(), n=buf.limit(); i<n && !invalid; i++){
+            accept(buf.get(i));
+        }
+    }
+
+    /**
+     * Parses a single byte of the file
+     * @param b
+     * @author MohamedBenRahuma
+     */
+    void accept(byte b){
+        if(b == '\n' && afterCR){
+            afterCR = false;
+            return;
+        }
+        afterCR = b == '\r';
+        if(b == '\n' || b == '\r'){
+            endLine();
+            return;
+        }
+        byte t = TYPE_OF[b & 0xff];
+        if(t == INVALID){
+            invalid = true;
+            return;
+        }
+        if(size == cells.length){
+            cells = Arrays.copyOf(cells, (int)Math.min((long)size * 2, Integer.MAX_VALUE - 8));
+        }
+        if(t == Tile.Type.ENTRANCE.ordinal())entrance = size;
+        if(t == Tile.Type.EXIT.ordinal())exit = size;
+        cells[size++] = t;
+        column++;
+    }
+
+    /**
+     * Called once the whole file has been fed in, closes an unterminated last line
+     * @author MohamedBenRahuma
+     */
+    void finish(){
+        if(column > 0)endLine();
+    }
+
+    private void endLine(){
+        if(height == 0)width = column;
+        else if(column != width)ragged = true;
+        height++;
+        column = 0;
+    }
+
+    /**
+     * returns true once a character outside the maze alphabet has been seen
+     * @return
+     * @author MohamedBenRahuma
+     */
+    boolean isInvalid(){
+        return invalid;
+    }
+
+    boolean isRagged(){
+        return ragged;
+    }
+
+    int getWidth(){
+        return width;
+    }
+
+    int getHeight(){
+        return height;
+    }
+
+    /**
+     * returns index of the last entrance seen, or -1
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int getEntrance(){
+        return entrance;
+    }
+
+    /**
+     * returns index of the last exit seen, or -1
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int getExit(){
+        return exit;
+    }
+
+    /**
+     * returns the parsed cells, trimmed to the size of the grid
+     * @return
+     * @author MohamedBenRahuma
+     */
+    byte[] getCells(){
+        if(cells.length != size)cells = Arrays.copyOf(cells, size);
+        return cells;
+    }
+}
@@ -0,0 +1,121 @@
+package maze;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Cell storage outside the Java heap, 2 bits per cell packed four to a byte of a direct or mapped
+ * ByteBuffer, in the same layout as the cells of the binary maze format. 
+ * A read-only mapping is copied into direct memory the first time a cell is set. 
+ * The memory is released when the store is closed rather than when it is garbage collected
+ * @author MohamedBenRahuma
+ */
+class OffHeapCellStore implements CellStore {
+    private static Object unsafe;
+    private static Method invokeCleaner;
+
+    private ByteBuffer buf;
+    private int offset;
+    private final int size;
+
+    /**
+     * Creates a store of 'size' cells in newly allocated direct memory
+     * @param size
+     * @author MohamedBenRahuma
+     */
+    OffHeapCellStore(int size){
+        this(ByteBuffer.allocateDirect((int)(((long)size + 3) >>> 2)), 0, size);
+    }
+
+    /**
+     * Creates a store over 'size' packed cells of 'buf' starting at byte 'offset', used in place.
+     * 'buf' must be the buffer returned by allocateDirect or FileChannel.map, not a slice of it,
+     * for close to be able to release it. 'buf' may be read-only
+     * @param buf
+     * @param offset
+     * @param size
+     * @author MohamedBenRahuma
+     */
+    OffHeapCellStore(ByteBuffer buf, int offset, int size){
+        this.buf = buf;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * returns an off-heap copy of the cells in 'store'
+     * @param store
+     * @return
+     * @author MohamedBenRahuma
+     */
+    static OffHeapCellStore copyOf(CellStore store){
+        OffHeapCellStore offHeap = new OffHeapCellStore(store.size());
+        for(int i=0; i<store.size(); i++){
+            offHeap.set(i, store.get(i));
+        }
+        return offHeap;
+    }
+
+    public int get(int i){
+        return (buf.get(offset + (i >>> 2)) >>> ((i & 3) << 1)) & 3;
+    }
+
+    public void set(int i, int type){
+        if(buf.isReadOnly())copyToDirect();
+        int b = offset + (i >>> 2);
+        int shift = (i & 3) << 1;
+        buf.put(b, (byte)((buf.get(b) & ~(3 << shift)) | (type << shift)));
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Moves the cells out of a read-only mapping into newly allocated direct memory and unmaps the file
+     * @author MohamedBenRahuma
+     */
+    private void copyToDirect(){
+        ByteBuffer cells = buf.duplicate();
+        cells.position(offset).limit(offset + (int)(((long)size + 3) >>> 2));
+        ByteBuffer copy = ByteBuffer.allocateDirect(cells.remaining());
+        copy.put(cells);
+        invokeCleaner(buf);
+        buf = copy;
+        offset = 0;
+    }
+
+    /**
+     * Frees the direct memory, or unmaps the file, straight away
+     * @author MohamedBenRahuma
+     */
+    public void close(){
+        if(buf != null && buf.isDirect()){
+            invokeCleaner(buf);
+        }
+        buf = null;
+    }
+
+    /**
+     * Frees a direct or mapped buffer through sun.misc.Unsafe.invokeCleaner, looked up reflectively 
+     * as there is no public API for it. If it is unavailable the buffer is left for the garbage collector
+     * @param buf
+     * @author MohamedBenRahuma
+     */
+    private static synchronized void invokeCleaner(ByteBuffer buf){
+        try{
+            if(invokeCleaner == null){
+                Class<?> cls = Class.forName("sun.misc.Unsafe");
+                Field f = cls.getDeclaredField("theUnsafe");
+                f.setAccessible(true);
+                unsafe = f.get(null);
+                invokeCleaner = cls.getMethod("invokeCleaner", ByteBuffer.class);
+            }
+            invokeCleaner.invoke(unsafe, buf);
+        }
+        catch(ReflectiveOperationException | RuntimeException e){
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package maze;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Cell storage packing the four Tile.Types into 2 bits per cell, 32 cells to a long.
+ * Cell i is held in bits 2*(i%32) and 2*(i%32)+1 of word i/32, which is the same layout
+ * as the cells of the binary maze format read as little-endian longs
+ * @author MohamedBenRahuma
+ */
+class PackedCellStore implements CellStore {
+    private final long[] words;
+    private final int size;
+
+    PackedCellStore(int size){
+        this.size = size;
+        words = new long[(int)(((long)size + 31) >>> 5)];
+    }
+
+    /**
+     * returns a packed copy of the cells in 'store'
+     * @param store
+     * @return
+     * @author MohamedBenRahuma
+     */
+    static PackedCellStore copyOf(CellStore store){
+        PackedCellStore packed = new PackedCellStore(store.size());
+        for(int i=0; i<store.size(); i++){
+            packed.set(i, store.get(i));
+        }
+        return packed;
+    }
+
+    /**
+     * reads 'size' cells in the binary maze format from 'buf', starting at 'offset'
+     * @param buf
+     * @param offset
+     * @param size
+     * @return
+     * @author MohamedBenRahuma
+     */
+    static PackedCellStore read(ByteBuffer buf, int offset, int size){
+        PackedCellStore packed = new PackedCellStore(size);
+        ByteBuffer cells = buf.duplicate();
+        cells.position(offset);
+        cells = cells.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int bytes = (int)(((long)size + 3) >>> 2);
+        int whole = bytes >>> 3;
+        cells.asLongBuffer().get(packed.words, 0, whole);
+        for(int b=whole << 3; b<bytes; b++){
+            packed.words[whole] |= (cells.get(b) & 0xffL) << ((b & 7) << 3);
+        }
+        return packed;
+    }
+
+    public int get(int i){
+        return (int)(words[i >>> 5] >>> ((i & 31) << 1)) & 3;
+    }
+
+    public void set(int i, int type){
+        int shift = (i & 31) << 1;
+        words[i >>> 5] = (words[i >>> 5] & ~(3L << shift)) | ((long)type << shift);
+    }
+
+    public int size(){
+        return size;
+    }
+}
@@ -0,0 +1,92 @@
+package maze;
+
+/**
+ * Snapshot of the page cache statistics of a paged Maze, used for sizing the cache
+ * @author MohamedBenRahuma
+ */
+public class PageCacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int cachedPages;
+    private final int capacity;
+    private final int pageSize;
+
+    PageCacheStats(long hits, long misses, long evictions, int cachedPages, int capacity, int pageSize){
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.cachedPages = cachedPages;
+        this.capacity = capacity;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * returns number of cell reads served from a cached page
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public long getHits(){
+        return hits;
+    }
+
+    /**
+     * returns number of cell reads that had to read their page from disk
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public long getMisses(){
+        return misses;
+    }
+
+    /**
+     * returns number of pages dropped from the cache to make room for another
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public long getEvictions(){
+        return evictions;
+    }
+
+    /**
+     * returns number of pages currently in the cache
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getCachedPages(){
+        return cachedPages;
+    }
+
+    /**
+     * returns maximum number of pages the cache holds
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * returns number of cells in a page
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getPageSize(){
+        return pageSize;
+    }
+
+    /**
+     * returns fraction of cell reads served from the cache
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public double getHitRate(){
+        long reads = hits + misses;
+        return reads == 0 ? 0 : (double)hits / reads;
+    }
+
+    public String toString(){
+        return "hits: " + hits + ", misses: " + misses + ", evictions: " + evictions 
+            + ", pages: " + cachedPages + "/" + capacity + " of " + pageSize + " cells";
+    }
+}
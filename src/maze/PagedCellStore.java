@@ -0,0 +1,134 @@
+package maze;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only cell storage over the cells of a binary maze file, read on demand a page at a time.
+ * Pages are fixed-size blocks of the packed cells on disk, and only the most recently used pages
+ * are kept in memory, in an LRU cache, so the maze can be larger than the available memory
+ * @author MohamedBenRahuma
+ */
+class PagedCellStore implements CellStore {
+    private FileChannel channel;
+    private final long offset;
+    private final int size;
+    private final int pageBytes;
+    private final int capacity;
+    private LinkedHashMap<Integer, byte[]> pages;
+    private byte[] spare;
+    private int lastPage = -1;
+    private byte[] last;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a store over 'size' cells packed in the binary maze format, starting at byte 'offset' of 'channel'. 
+     * 'pageSize' cells are read at a time and at most 'capacity' pages are cached
+     * @param channel
+     * @param offset
+     * @param size
+     * @param pageSize
+     * @param capacity
+     * @author MohamedBenRahuma
+     */
+    PagedCellStore(FileChannel channel, long offset, int size, int pageSize, int capacity){
+        if(pageSize < 4 || capacity < 1)throw new IllegalArgumentException();
+        this.channel = channel;
+        this.offset = offset;
+        this.size = size;
+        this.pageBytes = pageSize >>> 2;
+        this.capacity = capacity;
+        pages = new LinkedHashMap<Integer, byte[]>(16, 0.75f, true){
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest){
+                if(size() <= PagedCellStore.this.capacity)return false;
+                evictions++;
+                spare = eldest.getValue();
+                if(eldest.getKey() == lastPage)lastPage = -1;
+                return true;
+            }
+        };
+    }
+
+    public synchronized int get(int i){
+        int b = i >>> 2;
+        int page = b / pageBytes;
+        byte[] bytes;
+        if(page == lastPage){
+            bytes = last;
+            hits++;
+        }
+        else{
+            bytes = page(page);
+            lastPage = page;
+            last = bytes;
+        }
+        return (bytes[b - page * pageBytes] >>> ((i & 3) << 1)) & 3;
+    }
+
+    private byte[] page(int page){
+        byte[] bytes = pages.get(page);
+        if(bytes != null){
+            hits++;
+            return bytes;
+        }
+        misses++;
+        bytes = spare != null ? spare : new byte[pageBytes];
+        spare = null;
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        long position = offset + (long)page * pageBytes;
+        try{
+            while(buf.hasRemaining()){
+                if(channel.read(buf, position + buf.position()) == -1)break;
+            }
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+        pages.put(page, bytes);
+        return bytes;
+    }
+
+    /**
+     * Paged mazes are read-only
+     * @author MohamedBenRahuma
+     */
+    public void set(int i, int type){
+        throw new UnsupportedOperationException("Paged mazes are read-only");
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * returns a snapshot of the cache statistics
+     * @return
+     * @author MohamedBenRahuma
+     */
+    synchronized PageCacheStats getStats(){
+        return new PageCacheStats(hits, misses, evictions, pages.size(), capacity, pageBytes << 2);
+    }
+
+    /**
+     * Drops the cached pages and closes the file
+     * @author MohamedBenRahuma
+     */
+    public synchronized void close(){
+        pages.clear();
+        spare = null;
+        last = null;
+        lastPage = -1;
+        try{
+            channel.close();
+        }
+        catch(IOException e){
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package maze;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 /**
  * Class providing tile functionality 
@@ -15,26 +19,59 @@ public class Tile implements Serializable {
     public enum Type{
         CORRIDOR, ENTRANCE, EXIT, WALL;
     }
-    private Type type;
+    private static final long serialVersionUID = 6781369052030736696L;
+    private static final Type[] TYPES = Type.values();
+
+    private transient Type type;
+    private transient Maze maze;
+    private transient int index = -1;
 
     private Tile(Type t){
         type = t;
     }
+
+    private Tile(Type t, Maze m, int i){
+        type = t;
+        maze = m;
+        index = i;
+    }
     /**
-     * creates tile object from char arg
+     * creates a tile for the cell at row-major index 'i' of maze 'm'
+     * @param t
+     * @param m
+     * @param i
+     * @return
+     * @author MohamedBenRahuma
+     */
+    static Tile forCell(Type t, Maze m, int i){
+        return new Tile(t, m, i);
+    }
+    /**
+     * returns the type represented by char arg, or null if it is not a maze character
      * @param c
      * @return
      * @author MohamedBenRahuma
      */
-    protected static Tile fromChar(char c){
+    static Type typeOf(char c){
         switch(c){
-            case 'e' : return new Tile(Type.ENTRANCE);
-            case '#' : return new Tile(Type.WALL);
-            case 'x' : return new Tile(Type.EXIT);
-            case '.' : return new Tile(Type.CORRIDOR);
+            case 'e' : return Type.ENTRANCE;
+            case '#' : return Type.WALL;
+            case 'x' : return Type.EXIT;
+            case '.' : return Type.CORRIDOR;
         }
         return null;
     }
+    /**
+     * creates tile object from char arg
+     * @param c
+     * @return
+     * @author MohamedBenRahuma
+     */
+    protected static Tile fromChar(char c){
+        Type t = typeOf(c);
+        if(t == null)return null;
+        return new Tile(t);
+    }
     /**
      * returns type of tile
      * @return
@@ -43,6 +80,67 @@ public class Tile implements Serializable {
     public Type getType(){
         return type;
     }
+    /**
+     * places tile at row-major index 'i' of maze 'm'
+     * @param m
+     * @param i
+     * @author MohamedBenRahuma
+     */
+    void bind(Maze m, int i){
+        maze = m;
+        index = i;
+    }
+    /**
+     * returns the maze this tile has been placed in, or null
+     * @return
+     * @author MohamedBenRahuma
+     */
+    Maze getMaze(){
+        return maze;
+    }
+    /**
+     * returns the row-major index of this tile in its maze, or -1
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int getIndex(){
+        return index;
+    }
+    /**
+     * Serialises the tile as its type ordinal, maze and cell index
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException{
+        out.defaultWriteObject();
+        out.writeByte(type.ordinal());
+        out.writeObject(maze);
+        out.writeInt(index);
+    }
+
+    /**
+     * Reads a tile written by writeObject, or one saved before it with just its type, 
+     * which Maze places in its cell when the maze holding it is read
+     * @param in
+     * @throws IOException
+     * @throws ClassNotFoundException
+     * @author MohamedBenRahuma
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException{
+        ObjectInputStream.GetField fields = in.readFields();
+        index = -1;
+        if(fields.getObjectStreamClass().getField("type") != null){
+            type = (Type)fields.get("type", null);
+            if(type == null)throw new InvalidObjectException("Missing tile type");
+            return;
+        }
+        int t = in.readByte();
+        if(t < 0 || t >= TYPES.length)throw new InvalidObjectException("Unknown tile type " + t);
+        type = TYPES[t];
+        maze = (Maze)in.readObject();
+        index = in.readInt();
+    }
     /**
      * Checks to see if tile type is navigable 
      * @author MohamedBenRahuma
@@ -67,6 +165,23 @@ public class Tile implements Serializable {
 
         return null;
     }
-
-
+    /**
+     * tiles placed in a maze are equal when they refer to the same cell,
+     * as Maze hands out a fresh Tile for every lookup
+     * @author MohamedBenRahuma
+     */
+    public boolean equals(Object o){
+        if(this == o)return true;
+        if(!(o instanceof Tile) || maze == null)return false;
+        Tile t = (Tile)o;
+        return t.maze == maze && t.index == index;
+    }
+    /**
+     * returns hash code of tile, consistent with equals
+     * @author MohamedBenRahuma
+     */
+    public int hashCode(){
+        if(maze == null)return System.identityHashCode(this);
+        return index;
+    }
 }
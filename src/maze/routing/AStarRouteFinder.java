@@ -0,0 +1,82 @@
+package maze.routing;
+import maze.*;
+
+import java.util.*;
+
+/**
+ * A* solver, guided toward the exit by the Manhattan distance. On mazes where the exit is near the entrance, 
+ * or across open ground, it expands far fewer cells than a breadth first search while still finding a shortest route. 
+ * Each call to step expands one cell
+ * @author MohamedBenRahuma
+ */
+public class AStarRouteFinder extends GridRouteFinder{
+    private boolean initialized;
+    private int entrance;
+    private int exit;
+    private int current = -1;
+    private IntMinHeap open;
+    private int[] cost;
+    private byte[] cameFrom;
+
+    /**
+     * Constructor, takes maze object as an arg
+     * @param m
+     * @author MohamedBenRahuma
+     */
+    public AStarRouteFinder(Maze m){
+        super(m);
+    }
+
+    /**
+     * Expands the open cell with the lowest estimated route length, ties going to the cell nearest the exit
+     * @return
+     * @throws NoRouteFoundException
+     * @author MohamedBenRahuma
+     */
+    public boolean step() throws NoRouteFoundException{
+        if(finished)return false;
+        Maze maze = getMaze();
+        if(!initialized){
+            entrance = maze.indexOf(maze.getEntrance());
+            exit = maze.indexOf(maze.getExit());
+            open = new IntMinHeap();
+            cost = new int[maze.getCellCount()];
+            Arrays.fill(cost, Integer.MAX_VALUE);
+            cameFrom = new byte[maze.getCellCount()];
+            cost[entrance] = 0;
+            open.add(entrance, key(0, manhattan(entrance, exit)));
+            initialized = true;
+        }
+        int cell;
+        do{
+            if(open.isEmpty()){
+                current = -1;
+                throw new NoRouteFoundException();
+            }
+            cell = open.remove();
+        }while(expanded.get(cell));
+        expanded.set(cell);
+        nodesExpanded++;
+        current = cell;
+        if(cell == exit){
+            finished = true;
+            return true;
+        }
+        int next = cost[cell] + 1;
+        for(int moves = maze.getPassableMask(cell); moves != 0; moves &= moves - 1){
+            Maze.Direction d = BY_ORDINAL[Integer.numberOfTrailingZeros(moves)];
+            int n = maze.neighbour(cell, d);
+            if(next < cost[n]){
+                cost[n] = next;
+                cameFrom[n] = (byte)d.opposite().ordinal();
+                open.add(n, key(next, manhattan(n, exit)));
+            }
+        }
+        return false;
+    }
+
+    int[] routeCells(){
+        if(current == -1)return new int[0];
+        return walkBack(cameFrom, current, entrance);
+    }
+}
@@ -0,0 +1,127 @@
+package maze.routing;
+import maze.*;
+
+/**
+ * Breadth first solver that searches from the entrance and the exit at the same time and stops where the two meet. 
+ * Each call to step expands one cell. Levels are expanded whole, always on the side with the smaller frontier, 
+ * and once the frontiers touch the rest of that level is still checked, so the route found is a shortest one
+ * @author MohamedBenRahuma
+ */
+public class BidirectionalRouteFinder extends GridRouteFinder{
+    private static final byte FROM_ENTRANCE = 1;
+    private static final byte FROM_EXIT = 2;
+
+    private boolean initialized;
+    private int entrance;
+    private int exit;
+    private IntQueue fromEntrance;
+    private IntQueue fromExit;
+    private byte[] side;
+    private byte[] cameFrom;
+    private int[] distance;
+    private byte expanding;
+    private int levelLeft;
+    private int current = -1;
+    private int best = Integer.MAX_VALUE;
+    private int meetFromEntrance = -1;
+    private int meetFromExit = -1;
+
+    /**
+     * Constructor, takes maze object as an arg
+     * @param m
+     * @author MohamedBenRahuma
+     */
+    public BidirectionalRouteFinder(Maze m){
+        super(m);
+    }
+
+    /**
+     * Expands the next cell of the level being searched, returns true once a shortest route is known
+     * @return
+     * @throws NoRouteFoundException
+     * @author MohamedBenRahuma
+     */
+    public boolean step() throws NoRouteFoundException{
+        if(finished)return false;
+        Maze maze = getMaze();
+        if(!initialized){
+            entrance = maze.indexOf(maze.getEntrance());
+            exit = maze.indexOf(maze.getExit());
+            fromEntrance = new IntQueue();
+            fromExit = new IntQueue();
+            side = new byte[maze.getCellCount()];
+            cameFrom = new byte[maze.getCellCount()];
+            distance = new int[maze.getCellCount()];
+            side[entrance] = FROM_ENTRANCE;
+            side[exit] = FROM_EXIT;
+            fromEntrance.add(entrance);
+            fromExit.add(exit);
+            initialized = true;
+        }
+        if(levelLeft == 0){
+            if(fromEntrance.isEmpty() || fromExit.isEmpty()){
+                current = -1;
+                throw new NoRouteFoundException();
+            }
+            expanding = fromEntrance.size() <= fromExit.size() ? FROM_ENTRANCE : FROM_EXIT;
+            levelLeft = frontier(expanding).size();
+        }
+        int cell = frontier(expanding).remove();
+        levelLeft--;
+        expanded.set(cell);
+        nodesExpanded++;
+        current = cell;
+        for(int moves = maze.getPassableMask(cell); moves != 0; moves &= moves - 1){
+            Maze.Direction d = BY_ORDINAL[Integer.numberOfTrailingZeros(moves)];
+            int n = maze.neighbour(cell, d);
+            if(side[n] == 0){
+                side[n] = expanding;
+                cameFrom[n] = (byte)d.opposite().ordinal();
+                distance[n] = distance[cell] + 1;
+                frontier(expanding).add(n);
+            }
+            else if(side[n] != expanding && distance[cell] + 1 + distance[n] < best){
+                best = distance[cell] + 1 + distance[n];
+                meetFromEntrance = expanding == FROM_ENTRANCE ? cell : n;
+                meetFromExit = expanding == FROM_ENTRANCE ? n : cell;
+            }
+        }
+        if(levelLeft == 0 && meetFromEntrance != -1){
+            finished = true;
+            return true;
+        }
+        return false;
+    }
+
+    private IntQueue frontier(byte s){
+        return s == FROM_ENTRANCE ? fromEntrance : fromExit;
+    }
+
+    /**
+     * Once finished this is the whole route. Before that it is the path to the cell last expanded, 
+     * from the entrance when that cell was reached from the entrance and on to the exit otherwise
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int[] routeCells(){
+        if(finished){
+            int[] head = walkBack(cameFrom, meetFromEntrance, entrance);
+            int[] tail = walkBack(cameFrom, meetFromExit, exit);
+            int[] route = new int[head.length + tail.length];
+            System.arraycopy(head, 0, route, 0, head.length);
+            for(int i=0; i<tail.length; i++){
+                route[head.length + i] = tail[tail.length - 1 - i];
+            }
+            return route;
+        }
+        if(current == -1)return new int[0];
+        if(side[current] == FROM_ENTRANCE)return walkBack(cameFrom, current, entrance);
+        int[] path = walkBack(cameFrom, current, exit);
+        for(int i=0, j=path.length-1; i<j; i++, j--){
+            int t = path[i];
+            path[i] = path[j];
+            path[j] = t;
+        }
+        return path;
+    }
+}
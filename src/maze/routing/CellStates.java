@@ -0,0 +1,111 @@
+package maze.routing;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Per cell search state packed 2 bits to a cell, 32 cells to a long, indexed by cell
+ * @author MohamedBenRahuma
+ */
+class CellStates {
+    static final int UNVISITED = 0;
+    static final int ON_ROUTE = 1;
+    static final int DEAD_END = 2;
+    static final int QUEUED = 3;
+
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    private final long[] words;
+    private final int size;
+    // cells in any state other than UNVISITED, kept up to date by set
+    private int visited;
+
+    /**
+     * Creates an overlay for 'size' cells, all unvisited
+     * @param size
+     * @author MohamedBenRahuma
+     */
+    CellStates(int size){
+        words = new long[(size + 31) >>> 5];
+        this.size = size;
+    }
+
+    /**
+     * Writes the states packed four to a byte, cell i in bits 2*(i%4) and 2*(i%4)+1 of byte i/4, 
+     * the same layout as the cells of a binary maze file
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    void write(DataOutput out) throws IOException{
+        byte[] bytes = new byte[(size + 3) >>> 2];
+        for(int b=0; b<bytes.length; b++){
+            bytes[b] = (byte)(words[b >>> 3] >>> ((b & 7) << 3));
+        }
+        out.write(bytes);
+    }
+
+    /**
+     * Reads the states of 'size' cells written by write
+     * @param in
+     * @param size
+     * @return
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    static CellStates read(DataInput in, int size) throws IOException{
+        CellStates states = new CellStates(size);
+        byte[] bytes = new byte[(size + 3) >>> 2];
+        in.readFully(bytes);
+        for(int b=0; b<bytes.length; b++){
+            states.words[b >>> 3] |= (bytes[b] & 0xffL) << ((b & 7) << 3);
+        }
+        for(long w : states.words){
+            states.visited += Long.bitCount((w | (w >>> 1)) & LOW_BITS);
+        }
+        return states;
+    }
+
+    int get(int cell){
+        return (int)(words[cell >>> 5] >>> ((cell & 31) << 1)) & 3;
+    }
+
+    void set(int cell, int state){
+        int shift = (cell & 31) << 1;
+        int word = cell >>> 5;
+        long w = words[word];
+        if(((w >>> shift) & 3) == UNVISITED)visited += state == UNVISITED ? 0 : 1;
+        else if(state == UNVISITED)visited--;
+        words[word] = (w & ~(3L << shift)) | ((long)state << shift);
+    }
+
+    boolean isVisited(int cell){
+        return get(cell) != UNVISITED;
+    }
+
+    /**
+     * returns number of cells in 'state', which must not be UNVISITED
+     * @param state
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int count(int state){
+        long pattern = LOW_BITS * state;
+        int count = 0;
+        for(long w : words){
+            long x = w ^ pattern;
+            count += Long.bitCount(~(x | (x >>> 1)) & LOW_BITS);
+        }
+        return count;
+    }
+
+    /**
+     * returns number of cells in any state other than unvisited, without scanning the overlay
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int countVisited(){
+        return visited;
+    }
+}
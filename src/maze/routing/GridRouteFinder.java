@@ -0,0 +1,156 @@
+package maze.routing;
+import maze.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Base class for the shortest route solvers that work on cell indices rather than tiles. 
+ * Like RouteFinder each call to step does a bounded amount of work so a solve can be animated, 
+ * and the route found so far is rebuilt from the solver's own bookkeeping when it is looked at
+ * @author MohamedBenRahuma
+ */
+public abstract class GridRouteFinder {
+    static final Maze.Direction[] BY_ORDINAL = Maze.Direction.values();
+
+    private Maze maze;
+    boolean finished;
+    long nodesExpanded;
+    BitSet expanded = new BitSet();
+
+    /**
+     * Constructor, takes the maze to solve as an arg
+     * @param m
+     * @author MohamedBenRahuma
+     */
+    GridRouteFinder(Maze m){
+        maze = m;
+    }
+
+    /**
+     * returns maze 
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public Maze getMaze(){
+        return maze;
+    }
+
+    /**
+     * checks to see if Maze has been successfully traversed 
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public boolean isFinished(){
+        return finished;
+    }
+
+    /**
+     * returns the number of cells expanded so far
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public long getNodesExpanded(){
+        return nodesExpanded;
+    }
+
+    /**
+     * return current route, from the entrance, that the solver is looking at. 
+     * Once finished this is a shortest route from the entrance to the exit
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public List<Tile> getRoute(){
+        int[] cells = routeCells();
+        List<Tile> route = new ArrayList<>(cells.length);
+        for (int cell : cells) route.add(maze.getTile(cell));
+        return route;
+    }
+
+    /**
+     * Does one unit of work. Returns true on the step that reaches the exit and false otherwise
+     * @return
+     * @throws NoRouteFoundException if every reachable cell has been expanded without finding the exit
+     * @author MohamedBenRahuma
+     */
+    public abstract boolean step() throws NoRouteFoundException;
+
+    /**
+     * returns the cell indices of the current route, entrance first
+     * @return
+     * @author MohamedBenRahuma
+     */
+    abstract int[] routeCells();
+
+    /**
+     * Walks 'cameFrom' back from 'from' until 'to', returning the cells visited with 'to' first. 
+     * cameFrom[c] is the ordinal of the direction from c back toward where it was reached from
+     * @param cameFrom
+     * @param from
+     * @param to
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int[] walkBack(byte[] cameFrom, int from, int to){
+        int length = 1;
+        for (int c = from; c != to; c = maze.neighbour(c, BY_ORDINAL[cameFrom[c]])) length++;
+        int[] path = new int[length];
+        for (int c = from, i = length - 1; i >= 0; i--) {
+            path[i] = c;
+            if (i > 0) c = maze.neighbour(c, BY_ORDINAL[cameFrom[c]]);
+        }
+        return path;
+    }
+
+    /**
+     * Manhattan distance between cells 'a' and 'b', the fewest moves between them on an open grid
+     * @param a
+     * @param b
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int manhattan(int a, int b){
+        int width = maze.getWidth();
+        return Math.abs(a % width - b % width) + Math.abs(a / width - b / width);
+    }
+
+    /**
+     * Priority of a cell reached at 'cost' with an estimated 'remaining' still to go: the estimated 
+     * route length in the high half, and the distance still to go in the low half to break ties
+     * @param cost
+     * @param remaining
+     * @return
+     * @author MohamedBenRahuma
+     */
+    static long key(int cost, int remaining){
+        return ((long)(cost + remaining) << 32) | remaining;
+    }
+
+    /**
+     * Writes the string representation of the solver to 'out', the route drawn as '*' and 
+     * the other expanded cells as '-'
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    public void render(Appendable out) throws IOException{
+        BitSet onRoute = new BitSet(maze.getCellCount());
+        for (int cell : routeCells()) onRoute.set(cell);
+        maze.render(out, cell -> onRoute.get(cell) ? '*' : expanded.get(cell) ? '-' : 0);
+    }
+
+    /**
+     * return string representation of the solver
+     * @author MohamedBenRahuma
+     */
+    public String toString(){
+        StringBuilder res = new StringBuilder();
+        try{
+            render(res);
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+        return res.toString();
+    }
+}
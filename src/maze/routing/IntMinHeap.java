@@ -0,0 +1,72 @@
+package maze.routing;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min heap of int values ordered by long keys, held in parallel primitive arrays so nothing is boxed. 
+ * There is no decrease key, a value whose key improves is simply added again
+ * @author MohamedBenRahuma
+ */
+class IntMinHeap {
+    private long[] keys = new long[16];
+    private int[] values = new int[16];
+    private int size;
+
+    /**
+     * adds 'value' with priority 'key', smaller keys come out first
+     * @param value
+     * @param key
+     * @author MohamedBenRahuma
+     */
+    void add(int value, long key){
+        if(size == keys.length){
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int i = size++;
+        while(i > 0){
+            int parent = (i - 1) >>> 1;
+            if(keys[parent] <= key)break;
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    /**
+     * removes and returns the value with the smallest key
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int remove(){
+        if(size == 0)throw new NoSuchElementException();
+        int top = values[0];
+        size--;
+        long key = keys[size];
+        int value = values[size];
+        int i = 0;
+        while(true){
+            int child = 2 * i + 1;
+            if(child >= size)break;
+            if(child + 1 < size && keys[child + 1] < keys[child])child++;
+            if(key <= keys[child])break;
+            keys[i] = keys[child];
+            values[i] = values[child];
+            i = child;
+        }
+        keys[i] = key;
+        values[i] = value;
+        return top;
+    }
+
+    boolean isEmpty(){
+        return size == 0;
+    }
+
+    int size(){
+        return size;
+    }
+}
@@ -0,0 +1,67 @@
+package maze.routing;
+
+import java.util.NoSuchElementException;
+
+/**
+ * First in first out queue of ints, held in a growable ring buffer so nothing is boxed
+ * @author MohamedBenRahuma
+ */
+class IntQueue {
+    private int[] items = new int[16];
+    private int head;
+    private int size;
+
+    /**
+     * adds 'value' to the back of the queue
+     * @param value
+     * @author MohamedBenRahuma
+     */
+    void add(int value){
+        if(size == items.length)grow();
+        items[(head + size) & (items.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * removes and returns the value at the front of the queue
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int remove(){
+        if(size == 0)throw new NoSuchElementException();
+        int value = items[head];
+        head = (head + 1) & (items.length - 1);
+        size--;
+        return value;
+    }
+
+    boolean isEmpty(){
+        return size == 0;
+    }
+
+    int size(){
+        return size;
+    }
+
+    /**
+     * returns the queued values, front first
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int[] toArray(){
+        int[] values = new int[size];
+        for(int i=0; i<size; i++){
+            values[i] = items[(head + i) & (items.length - 1)];
+        }
+        return values;
+    }
+
+    private void grow(){
+        int[] grown = new int[items.length * 2];
+        for(int i=0; i<size; i++){
+            grown[i] = items[(head + i) & (items.length - 1)];
+        }
+        items = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,160 @@
+package maze.routing;
+import maze.*;
+
+import java.util.*;
+
+/**
+ * Jump Point Search for the 4-connected grid, an A* search over jump points only. 
+ * Among shortest routes it only considers ones that keep going horizontally, and turn vertically only 
+ * when it is natural or forced by a wall, so the symmetric cells of open corridor regions are scanned 
+ * in straight lines rather than queued and expanded. 
+ * Moving horizontally every cell can turn north or south, and a horizontal scan stops where either vertical scan 
+ * finds something. Moving vertically only straight on is natural, turning east or west is forced where the cell 
+ * beside the previous one is a wall. Each call to step expands one jump point, and the route is filled back in 
+ * tile by tile between jump points
+ * @author MohamedBenRahuma
+ */
+public class JumpPointRouteFinder extends GridRouteFinder{
+    private static final byte NONE = -1;
+    private static final Maze.Direction[] HORIZONTAL = {Maze.Direction.EAST, Maze.Direction.WEST};
+    private static final Maze.Direction[] VERTICAL = {Maze.Direction.NORTH, Maze.Direction.SOUTH};
+
+    private boolean initialized;
+    private int entrance;
+    private int exit;
+    private int current = -1;
+    private IntMinHeap open;
+    private int[] cost;
+    private int[] parent;
+    private byte[] arrived;
+
+    /**
+     * Constructor, takes maze object as an arg
+     * @param m
+     * @author MohamedBenRahuma
+     */
+    public JumpPointRouteFinder(Maze m){
+        super(m);
+    }
+
+    /**
+     * Expands the open jump point with the lowest estimated route length
+     * @return
+     * @throws NoRouteFoundException
+     * @author MohamedBenRahuma
+     */
+    public boolean step() throws NoRouteFoundException{
+        if(finished)return false;
+        Maze maze = getMaze();
+        if(!initialized){
+            entrance = maze.indexOf(maze.getEntrance());
+            exit = maze.indexOf(maze.getExit());
+            open = new IntMinHeap();
+            cost = new int[maze.getCellCount()];
+            Arrays.fill(cost, Integer.MAX_VALUE);
+            parent = new int[maze.getCellCount()];
+            arrived = new byte[maze.getCellCount()];
+            cost[entrance] = 0;
+            parent[entrance] = -1;
+            arrived[entrance] = NONE;
+            open.add(entrance, key(0, manhattan(entrance, exit)));
+            initialized = true;
+        }
+        int cell;
+        do{
+            if(open.isEmpty()){
+                current = -1;
+                throw new NoRouteFoundException();
+            }
+            cell = open.remove();
+        }while(expanded.get(cell));
+        expanded.set(cell);
+        nodesExpanded++;
+        current = cell;
+        if(cell == exit){
+            finished = true;
+            return true;
+        }
+        if(arrived[cell] == NONE){
+            for(Maze.Direction d : BY_ORDINAL)jumpTo(cell, d);
+        }
+        else{
+            Maze.Direction d = BY_ORDINAL[arrived[cell]];
+            jumpTo(cell, d);
+            if(isHorizontal(d)){
+                for(Maze.Direction v : VERTICAL)jumpTo(cell, v);
+            }
+            else{
+                int previous = maze.neighbour(cell, d.opposite());
+                for(Maze.Direction h : HORIZONTAL){
+                    if(passable(cell, h) && !passable(previous, h))jumpTo(cell, h);
+                }
+            }
+        }
+        return false;
+    }
+
+    // jumps from 'cell' toward 'd' and opens the jump point found, if any
+    private void jumpTo(int cell, Maze.Direction d){
+        int next = isHorizontal(d) ? jumpHorizontal(cell, d) : jumpVertical(cell, d);
+        if(next == -1)return;
+        int c = cost[cell] + manhattan(cell, next);
+        if(c < cost[next]){
+            cost[next] = c;
+            parent[next] = cell;
+            arrived[next] = (byte)d.ordinal();
+            open.add(next, key(c, manhattan(next, exit)));
+        }
+    }
+
+    private int jumpHorizontal(int cell, Maze.Direction d){
+        Maze maze = getMaze();
+        for(int c = cell; passable(c, d); ){
+            c = maze.neighbour(c, d);
+            if(c == exit)return c;
+            if(jumpVertical(c, Maze.Direction.NORTH) != -1 || jumpVertical(c, Maze.Direction.SOUTH) != -1)return c;
+        }
+        return -1;
+    }
+
+    private int jumpVertical(int cell, Maze.Direction d){
+        Maze maze = getMaze();
+        for(int c = cell; passable(c, d); ){
+            int previous = c;
+            c = maze.neighbour(c, d);
+            if(c == exit)return c;
+            for(Maze.Direction h : HORIZONTAL){
+                if(passable(c, h) && !passable(previous, h))return c;
+            }
+        }
+        return -1;
+    }
+
+    private boolean passable(int cell, Maze.Direction d){
+        return (getMaze().getPassableMask(cell) & (1 << d.ordinal())) != 0;
+    }
+
+    private static boolean isHorizontal(Maze.Direction d){
+        return d == Maze.Direction.EAST || d == Maze.Direction.WEST;
+    }
+
+    /**
+     * the path to the jump point last expanded, with the straight runs between jump points filled in
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int[] routeCells(){
+        if(current == -1)return new int[0];
+        Maze maze = getMaze();
+        int[] route = new int[cost[current] + 1];
+        int i = route.length - 1;
+        for(int c = current; parent[c] != -1; ){
+            Maze.Direction back = BY_ORDINAL[arrived[c]].opposite();
+            for(int p = parent[c]; c != p; c = maze.neighbour(c, back)){
+                route[i--] = c;
+            }
+        }
+        route[0] = entrance;
+        return route;
+    }
+}
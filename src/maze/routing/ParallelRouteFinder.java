@@ -0,0 +1,177 @@
+package maze.routing;
+import maze.*;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level synchronous breadth first solver for very large mazes. Each call to step expands a whole frontier level, 
+ * split across the common ForkJoinPool. Cells are claimed with a compare and set on an atomic bitset, 
+ * so each cell is queued once and only the thread that claimed it records where it was reached from
+ * @author MohamedBenRahuma
+ */
+public class ParallelRouteFinder extends GridRouteFinder{
+    // frontier slices smaller than this are expanded on the calling thread
+    private static final int THRESHOLD = 256;
+
+    private final boolean parallel;
+    private boolean initialized;
+    private int entrance;
+    private int exit;
+    private AtomicLongArray visited;
+    private byte[] cameFrom;
+    private int[] frontier;
+    private int levels;
+    private long searchNanos;
+    private long sequentialNanos = -1;
+
+    /**
+     * Constructor, takes maze object as an arg
+     * @param m
+     * @author MohamedBenRahuma
+     */
+    public ParallelRouteFinder(Maze m){
+        this(m, true);
+    }
+
+    private ParallelRouteFinder(Maze m, boolean parallel){
+        super(m);
+        this.parallel = parallel;
+    }
+
+    /**
+     * Expands the whole current frontier level, returns true on the level that reaches the exit
+     * @return
+     * @throws NoRouteFoundException
+     * @author MohamedBenRahuma
+     */
+    public boolean step() throws NoRouteFoundException{
+        if(finished)return false;
+        Maze maze = getMaze();
+        if(!initialized){
+            entrance = maze.indexOf(maze.getEntrance());
+            exit = maze.indexOf(maze.getExit());
+            visited = new AtomicLongArray((maze.getCellCount() + 63) >>> 6);
+            cameFrom = new byte[maze.getCellCount()];
+            claim(entrance);
+            frontier = new int[]{entrance};
+            initialized = true;
+        }
+        if(frontier.length == 0)throw new NoRouteFoundException();
+        long start = System.nanoTime();
+        int[] next = parallel && frontier.length > THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1 
+            ? ForkJoinPool.commonPool().invoke(new Level(frontier, 0, frontier.length)) 
+            : expand(frontier, 0, frontier.length);
+        searchNanos += System.nanoTime() - start;
+        for(int cell : frontier)expanded.set(cell);
+        nodesExpanded += frontier.length;
+        levels++;
+        frontier = next;
+        if(isVisited(exit)){
+            finished = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Times the same search on one thread, so getStats can report the speedup. 
+     * The comparison is only fair once this route finder has also been stepped until it finished
+     * @author MohamedBenRahuma
+     */
+    public void measureSequential(){
+        ParallelRouteFinder sequential = new ParallelRouteFinder(getMaze(), false);
+        try{
+            while(!sequential.step()){ }
+        }
+        catch(NoRouteFoundException e){
+            // the time up to running out of cells is still comparable
+        }
+        sequentialNanos = sequential.searchNanos;
+    }
+
+    /**
+     * returns the statistics of the search so far
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public ParallelSearchStats getStats(){
+        return new ParallelSearchStats(levels, nodesExpanded, ForkJoinPool.getCommonPoolParallelism(), 
+            searchNanos, sequentialNanos);
+    }
+
+    private boolean claim(int cell){
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        while(true){
+            long bits = visited.get(word);
+            if((bits & bit) != 0)return false;
+            if(visited.compareAndSet(word, bits, bits | bit))return true;
+        }
+    }
+
+    private boolean isVisited(int cell){
+        return (visited.get(cell >>> 6) & (1L << cell)) != 0;
+    }
+
+    // expands frontier[from, to), returning the cells this call claimed
+    private int[] expand(int[] cells, int from, int to){
+        Maze maze = getMaze();
+        int[] next = new int[(to - from) * 4];
+        int size = 0;
+        for(int i=from; i<to; i++){
+            int cell = cells[i];
+            for(int moves = maze.getPassableMask(cell); moves != 0; moves &= moves - 1){
+                Maze.Direction d = BY_ORDINAL[Integer.numberOfTrailingZeros(moves)];
+                int n = maze.neighbour(cell, d);
+                if(claim(n)){
+                    cameFrom[n] = (byte)d.opposite().ordinal();
+                    next[size++] = n;
+                }
+            }
+        }
+        return Arrays.copyOf(next, size);
+    }
+
+    /**
+     * Fork join task expanding a slice of the frontier, halving it until it is small enough to expand directly
+     * @author MohamedBenRahuma
+     */
+    @SuppressWarnings("serial")
+    private class Level extends RecursiveTask<int[]>{
+        private final int[] cells;
+        private final int from;
+        private final int to;
+
+        Level(int[] cells, int from, int to){
+            this.cells = cells;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected int[] compute(){
+            if(to - from <= THRESHOLD)return expand(cells, from, to);
+            int middle = (from + to) >>> 1;
+            Level left = new Level(cells, from, middle);
+            left.fork();
+            int[] right = new Level(cells, middle, to).compute();
+            int[] first = left.join();
+            int[] res = Arrays.copyOf(first, first.length + right.length);
+            System.arraycopy(right, 0, res, first.length, right.length);
+            return res;
+        }
+    }
+
+    /**
+     * Once finished this is the route to the exit, before that the path to the first cell of the frontier
+     * @return
+     * @author MohamedBenRahuma
+     */
+    int[] routeCells(){
+        if(finished)return walkBack(cameFrom, exit, entrance);
+        if(!initialized || frontier.length == 0)return new int[0];
+        return walkBack(cameFrom, frontier[0], entrance);
+    }
+}
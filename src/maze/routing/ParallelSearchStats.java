@@ -0,0 +1,84 @@
+package maze.routing;
+
+/**
+ * Snapshot of the statistics of a ParallelRouteFinder, including its speedup over the same search run on one thread
+ * @author MohamedBenRahuma
+ */
+public class ParallelSearchStats {
+    private final int levels;
+    private final long cellsExpanded;
+    private final int parallelism;
+    private final long parallelNanos;
+    private final long sequentialNanos;
+
+    ParallelSearchStats(int levels, long cellsExpanded, int parallelism, long parallelNanos, long sequentialNanos){
+        this.levels = levels;
+        this.cellsExpanded = cellsExpanded;
+        this.parallelism = parallelism;
+        this.parallelNanos = parallelNanos;
+        this.sequentialNanos = sequentialNanos;
+    }
+
+    /**
+     * returns number of frontier levels expanded
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getLevels(){
+        return levels;
+    }
+
+    /**
+     * returns number of cells expanded
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public long getCellsExpanded(){
+        return cellsExpanded;
+    }
+
+    /**
+     * returns parallelism of the common fork join pool the levels were expanded on
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getParallelism(){
+        return parallelism;
+    }
+
+    /**
+     * returns nanoseconds spent expanding levels
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public long getParallelNanos(){
+        return parallelNanos;
+    }
+
+    /**
+     * returns nanoseconds the same search took on one thread, or -1 if it has not been measured
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public long getSequentialNanos(){
+        return sequentialNanos;
+    }
+
+    /**
+     * returns how many times faster the parallel search was than the sequential one, or 0 if it has not been measured
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public double getSpeedup(){
+        return sequentialNanos < 0 || parallelNanos == 0 ? 0 : (double)sequentialNanos / parallelNanos;
+    }
+
+    public String toString(){
+        String res = "levels: " + levels + ", cells: " + cellsExpanded + ", parallelism: " + parallelism 
+            + ", parallel: " + parallelNanos / 1000 + "us";
+        if(sequentialNanos >= 0){
+            res += ", sequential: " + sequentialNanos / 1000 + "us, speedup: " + String.format("%.2f", getSpeedup());
+        }
+        return res;
+    }
+}
@@ -0,0 +1,125 @@
+package maze.routing;
+import maze.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Compact route encoding. After its first tile every tile of a route is next to the one before, 
+ * so a route is stored as the start cell and one direction per move. 
+ * Format: big-endian ints magic, version, flags (1 run length encoded), maze width, maze height, 
+ * start cell or -1 for an empty route, and number of moves. Then either the moves as Direction ordinals 
+ * packed four to a byte, move i in bits 2*(i%4) and 2*(i%4)+1 of byte i/4, or, run length encoded, 
+ * one byte per run of up to 64 moves in the same direction, the ordinal in the low 2 bits and the run length less one above
+ * @author MohamedBenRahuma
+ */
+public class RouteCodec {
+    static final int MAGIC = 0x4D415A44;
+    static final int VERSION = 1;
+    private static final int RUN_LENGTH = 1;
+    private static final int MAX_RUN = 64;
+    private static final Maze.Direction[] DIRECTIONS = Maze.Direction.values();
+
+    private RouteCodec(){
+
+    }
+
+    /**
+     * Writes 'route', a route through 'maze' such as RouteFinder.getRoute returns, to 'out', leaving 'out' open
+     * @param maze
+     * @param route
+     * @param out
+     * @param runLength
+     * @throws IOException
+     * @throws IllegalArgumentException if the tiles of the route are not each next to the one before
+     * @author MohamedBenRahuma
+     */
+    public static void write(Maze maze, List<Tile> route, OutputStream out, boolean runLength) throws IOException{
+        int[] cells = new int[route.size()];
+        for(int i=0; i<cells.length; i++)cells[i] = maze.indexOf(route.get(i));
+        write(maze, cells, cells.length, out, runLength);
+    }
+
+    static void write(Maze maze, int[] cells, int length, OutputStream out, boolean runLength) throws IOException{
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(runLength ? RUN_LENGTH : 0);
+        data.writeInt(maze.getWidth());
+        data.writeInt(maze.getHeight());
+        data.writeInt(length == 0 ? -1 : cells[0]);
+        data.writeInt(Math.max(0, length - 1));
+        ByteArrayOutputStream moves = new ByteArrayOutputStream(runLength ? 64 : (length + 2) / 4);
+        int packed = 0;
+        int run = 0;
+        int last = -1;
+        for(int i=1; i<length; i++){
+            int d = direction(maze, cells[i - 1], cells[i]);
+            if(!runLength){
+                packed |= d << (((i - 1) & 3) << 1);
+                if((i & 3) == 0){
+                    moves.write(packed);
+                    packed = 0;
+                }
+            }
+            else if(d == last && run < MAX_RUN){
+                run++;
+            }
+            else{
+                if(run > 0)moves.write(last | ((run - 1) << 2));
+                last = d;
+                run = 1;
+            }
+        }
+        if(!runLength && ((length - 1) & 3) != 0 && length > 1)moves.write(packed);
+        if(runLength && run > 0)moves.write(last | ((run - 1) << 2));
+        moves.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * Reads a route through 'maze' written by write, checking every move stays on navigable tiles
+     * @param maze
+     * @param in
+     * @return
+     * @throws IOException if the data is not a route or does not fit 'maze'
+     * @author MohamedBenRahuma
+     */
+    public static List<Tile> read(Maze maze, InputStream in) throws IOException{
+        DataInputStream data = new DataInputStream(in);
+        if(data.readInt() != MAGIC)throw new StreamCorruptedException("Not a route encoding");
+        int version = data.readInt();
+        if(version < 1 || version > VERSION)throw new StreamCorruptedException("Unsupported route encoding version " + version);
+        boolean runLength = (data.readInt() & RUN_LENGTH) != 0;
+        if(data.readInt() != maze.getWidth() || data.readInt() != maze.getHeight()){
+            throw new StreamCorruptedException("Route is for a maze of a different size");
+        }
+        int cell = data.readInt();
+        int moves = data.readInt();
+        if(cell == -1 && moves == 0)return new ArrayList<>();
+        if(cell < 0 || cell >= maze.getCellCount() || !maze.isNavigable(cell) || moves < 0 || moves >= maze.getCellCount()){
+            throw new StreamCorruptedException("Route does not fit the maze");
+        }
+        List<Tile> route = new ArrayList<>(moves + 1);
+        route.add(maze.getTile(cell));
+        for(int i=0; i<moves; ){
+            int b = data.readUnsignedByte();
+            int count = runLength ? (b >>> 2) + 1 : Math.min(4, moves - i);
+            for(int j=0; j<count && i<moves; j++, i++){
+                int d = runLength ? b & 3 : (b >>> (j << 1)) & 3;
+                if((maze.getPassableMask(cell) & (1 << d)) == 0)throw new StreamCorruptedException("Route does not fit the maze");
+                cell = maze.neighbour(cell, DIRECTIONS[d]);
+                route.add(maze.getTile(cell));
+            }
+        }
+        return route;
+    }
+
+    // ordinal of the direction from cell 'from' to the next cell 'to'
+    private static int direction(Maze maze, int from, int to){
+        for(Maze.Direction d : DIRECTIONS){
+            if(maze.neighbour(from, d) == to)return d.ordinal();
+        }
+        throw new IllegalArgumentException("Route is not contiguous at cell " + to);
+    }
+}
@@ -3,23 +3,102 @@ import maze.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Class providing maze solving functionality, maze loading and saving functionality 
  * @author MohamedBenRahuma
  */
 public class RouteFinder implements Serializable{
-    private Maze maze;
-    private Stack<Tile> route = new Stack<>();
-    private boolean finished;
 
     /**
-     * Constructor, takes maze object as an arg
+     * Enum representing the search a RouteFinder steps through. 
+     * DEPTH_FIRST follows one path until it dead ends, trying EAST, WEST, NORTH then SOUTH. 
+     * BREADTH_FIRST expands cells in order of distance from the entrance, so the route it finds is a shortest one
+     * @author MohamedBenRahuma
+     */
+    public enum Mode{
+        DEPTH_FIRST, BREADTH_FIRST;
+    }
+
+    /**
+     * Enum representing what the search has done with a cell. In breadth first mode DEAD_END marks every 
+     * expanded cell off the current route, and cells queued but not yet expanded count as UNVISITED
+     * @author MohamedBenRahuma
+     */
+    public enum CellState{
+        UNVISITED, ON_ROUTE, DEAD_END;
+    }
+
+    private static final Maze.Direction[] DIRECTIONS = {Maze.Direction.EAST, Maze.Direction.WEST, Maze.Direction.NORTH, Maze.Direction.SOUTH};
+    private static final Maze.Direction[] BY_ORDINAL = Maze.Direction.values();
+    private static final byte[] FIRST = new byte[16];
+    // public state of each overlay value, queued cells have not been expanded yet
+    private static final CellState[] CELL_STATES = {CellState.UNVISITED, CellState.ON_ROUTE, CellState.DEAD_END, CellState.UNVISITED};
+
+    static {
+        // FIRST[mask] is the ordinal of the first direction, in the order tried by step, set in mask
+        for (int mask = 1; mask < 16; mask++) {
+            for (Maze.Direction d : DIRECTIONS) {
+                if ((mask & (1 << d.ordinal())) != 0) {
+                    FIRST[mask] = (byte)d.ordinal();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Route finder file format: big-endian ints magic, version, mode ordinal and flags (1 finished, 2 initialized), 
+     * then the maze in the binary format of Maze.toBinary. Once initialized this is followed by the cell state overlay 
+     * packed four cells to a byte like the maze, and the route length and route cells. In breadth first mode that is 
+     * followed by the cell the route is being rebuilt to or -1, the queue length and queued cells, and the direction 
+     * back toward the entrance of every cell packed four to a byte. 
+     * Readers take any version up to their own, so later versions only add to the format
+     */
+    static final int SNAPSHOT_MAGIC = 0x4D415A52;
+    static final int SNAPSHOT_VERSION = 1;
+    private static final int FINISHED = 1;
+    private static final int INITIALIZED = 2;
+    // first four bytes of a java serialization stream, route finders saved before the snapshot format
+    private static final int SERIALIZED_MAGIC = 0xACED0005;
+
+    // route finders saved before writeObject, with the route as a Stack of tiles, still read (see readObject)
+    private static final long serialVersionUID = 539620928620690865L;
+
+    private transient Maze maze;
+    private transient int[] route = new int[16];
+    private transient int routeSize;
+    private transient boolean finished;
+    private transient Mode mode;
+
+    /**
+     * Constructor, takes maze object as an arg, solves depth first
      * @param m
      * @author MohamedBenRahuma
      */
     public RouteFinder(Maze m){
+        this(m, Mode.DEPTH_FIRST);
+    }
+
+    /**
+     * Constructor, takes maze object and the search to step through as args
+     * @param m
+     * @param mode
+     * @author MohamedBenRahuma
+     */
+    public RouteFinder(Maze m, Mode mode){
         maze = m;
+        this.mode = mode;
+    }
+
+    /**
+     * returns the search this route finder steps through
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public Mode getMode(){
+        return mode == null ? Mode.DEPTH_FIRST : mode;
     }
     /**
      * returns maze 
@@ -30,12 +109,35 @@ public class RouteFinder implements Serializable{
         return maze;
     }
     /**
-     * return current route that has been traversed in the Maze
+     * return current route that has been traversed in the Maze. 
+     * The list is a read only view of the route, not a copy, so it follows later steps
      * @return
      * @author MohamedBenRahuma
      */
     public List<Tile> getRoute(){
-        return new ArrayList<>(route);
+        return new RouteView();
+    }
+
+    /**
+     * Read only list of the tiles on the route, looked up from the route's cell indices as they are asked for
+     * @author MohamedBenRahuma
+     */
+    private class RouteView extends AbstractList<Tile> implements RandomAccess{
+        public Tile get(int i){
+            syncRoute();
+            if(i < 0 || i >= routeSize)throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + routeSize);
+            return maze.getTile(route[i]);
+        }
+
+        public int size(){
+            syncRoute();
+            return routeSize;
+        }
+    }
+
+    private void push(int cell){
+        if(routeSize == route.length)route = Arrays.copyOf(route, routeSize * 2);
+        route[routeSize++] = cell;
     }
 
     /**
@@ -48,13 +150,21 @@ public class RouteFinder implements Serializable{
     }
 
     /**
-     * loads a RoutFinder from a file at the location of the arg path
+     * loads a RoutFinder from a file at the location of the arg path. 
+     * Files saved with java serialization are still read, both those written by writeObject 
+     * and those saved by the original RouteFinder with its Stack of tiles (see readObject)
      * @param path
      * @return
      * @author MohamedBenRahuma
      */
     public static RouteFinder load(String path){
-        try(FileInputStream f = new FileInputStream(path); ObjectInputStream obj = new ObjectInputStream(f)){
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 65536))){
+            in.mark(4);
+            int magic = in.readInt();
+            in.reset();
+            if(magic == SNAPSHOT_MAGIC)return readSnapshot(in);
+            if(magic != SERIALIZED_MAGIC)throw new StreamCorruptedException("Not a route file: " + path);
+            ObjectInputStream obj = new ObjectInputStream(in);
             try{
                 RouteFinder r = (RouteFinder)obj.readObject();
                 return r;
@@ -69,16 +179,21 @@ public class RouteFinder implements Serializable{
         catch (IOException e){
             System.out.println(e.getMessage());
         }
+        catch (InvalidMazeException e){
+            System.out.println("Invalid Maze: " + path);
+        }
         return null;
     }
+
     /**
-     * Saves route finder to file at given path
+     * Saves route finder to file at given path in the compact format read by load
      * @param path
      * @author MohamedBenRahuma
      */
     public void save(String path){
-        try(FileOutputStream f = new FileOutputStream(path); ObjectOutputStream obj = new ObjectOutputStream(f)){
-            obj.writeObject(this);
+        syncRoute();
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 65536))){
+            writeSnapshot(out);
         }
         catch(FileNotFoundException f){
             System.out.println(f.getMessage());
@@ -88,79 +203,586 @@ public class RouteFinder implements Serializable{
         }
     }
 
-    public Stack<Tile> nonRoute = new Stack<>();
-    boolean initialized = false;
-    Set<Tile> visited = new HashSet<>();
+    /**
+     * Exports the current route to file at given path in the compact encoding of RouteCodec, 
+     * run length encoded if 'runLength' is true
+     * @param path
+     * @param runLength
+     * @author MohamedBenRahuma
+     */
+    public void exportRoute(String path, boolean runLength){
+        syncRoute();
+        try(OutputStream out = new BufferedOutputStream(new FileOutputStream(path), 65536)){
+            RouteCodec.write(maze, route, routeSize, out, runLength);
+        }
+        catch(FileNotFoundException f){
+            System.out.println(f.getMessage());
+        }
+        catch (IOException i){
+            System.out.println(i.getMessage());
+        }
+    }
+
+    /**
+     * Starts journaling every change step makes to file at given path, see resume. 
+     * Has to be called before the first step
+     * @param path
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    public void startJournal(String path) throws IOException{
+        if(initialized)throw new IllegalStateException("A journal has to be started before the first step");
+        closeJournal();
+        journal = StepJournal.create(path, getMode(), maze);
+    }
+
+    /**
+     * Writes any journal records still buffered to the journal file
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    public void flushJournal() throws IOException{
+        if(journal != null)journal.flush();
+    }
+
+    /**
+     * Flushes and closes the journal, if there is one
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    public void closeJournal() throws IOException{
+        if(journal != null){
+            StepJournal j = journal;
+            journal = null;
+            j.close();
+        }
+    }
+
+    /**
+     * Rebuilds a RouteFinder for maze 'm' by replaying the journal at given path, then carries on journaling to it. 
+     * A journal cut off partway through a step is finished off, so the resumed solve is the one that was recorded
+     * @param m
+     * @param path
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public static RouteFinder resume(Maze m, String path){
+        try{
+            RouteFinder r = new RouteFinder(m, StepJournal.readMode(path, m));
+            long records = StepJournal.replay(path, m.getCellCount(), r::replay);
+            r.journal = StepJournal.append(path, records);
+            // the journal may stop partway through the queueing of the last expanded cell, 
+            // expanding it again queues any neighbours left out, and does nothing otherwise
+            if(r.getMode() == Mode.BREADTH_FIRST && !r.finished && r.pathEnd != -1)r.expand(r.pathEnd);
+            return r;
+        }
+        catch(FileNotFoundException f){
+            System.out.println(f.getMessage());
+        }
+        catch(IOException e){
+            System.out.println(e.getMessage());
+        }
+        return null;
+    }
+
+    // applies one journal record, making the same change step made when it was recorded
+    private void replay(int op, int direction, int cell) throws IOException{
+        if(finished)throw new StreamCorruptedException("Journal carries on after the exit");
+        if(!initialized){
+            states = new CellStates(maze.getCellCount());
+            if(getMode() == Mode.BREADTH_FIRST){
+                queue = new IntQueue();
+                cameFrom = new byte[maze.getCellCount()];
+            }
+            initialized = true;
+        }
+        boolean exit = maze.getType(cell) == Tile.Type.EXIT;
+        if(op == StepJournal.PUSH && getMode() == Mode.DEPTH_FIRST){
+            push(cell);
+            states.set(cell, CellStates.ON_ROUTE);
+            finished = exit;
+        }
+        else if(op == StepJournal.POP && getMode() == Mode.DEPTH_FIRST && routeSize > 0 && route[routeSize - 1] == cell){
+            routeSize--;
+            states.set(cell, CellStates.DEAD_END);
+        }
+        else if(op == StepJournal.QUEUE && getMode() == Mode.BREADTH_FIRST){
+            states.set(cell, CellStates.QUEUED);
+            cameFrom[cell] = (byte)direction;
+            if(exit){
+                pathEnd = cell;
+                finished = true;
+            }
+            else{
+                queue.add(cell);
+            }
+        }
+        else if(op == StepJournal.EXPAND && getMode() == Mode.BREADTH_FIRST && !queue.isEmpty() && queue.remove() == cell){
+            states.set(cell, CellStates.DEAD_END);
+            pathEnd = cell;
+        }
+        else if(op == StepJournal.EXHAUSTED && getMode() == Mode.BREADTH_FIRST && queue.isEmpty()){
+            routeSize = 0;
+            pathEnd = -1;
+        }
+        else{
+            throw new StreamCorruptedException("Journal record does not follow from the ones before it");
+        }
+    }
+
+    private void writeSnapshot(DataOutputStream out) throws IOException{
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(getMode().ordinal());
+        out.writeInt((finished ? FINISHED : 0) | (initialized ? INITIALIZED : 0));
+        maze.toBinary(out);
+        writeState(out);
+    }
+
+    /**
+     * Writes the search state that follows the maze in the route finder file format, see SNAPSHOT_MAGIC
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    private void writeState(DataOutput out) throws IOException{
+        if(!initialized)return;
+        states.write(out);
+        out.writeInt(routeSize);
+        for(int i=0; i<routeSize; i++)out.writeInt(route[i]);
+        if(getMode() != Mode.BREADTH_FIRST)return;
+        out.writeInt(pathEnd);
+        int[] queued = queue.toArray();
+        out.writeInt(queued.length);
+        for(int cell : queued)out.writeInt(cell);
+        byte[] packed = new byte[(cameFrom.length + 3) >>> 2];
+        for(int i=0; i<cameFrom.length; i++)packed[i >>> 2] |= cameFrom[i] << ((i & 3) << 1);
+        out.write(packed);
+    }
+
+    private static RouteFinder readSnapshot(DataInputStream in) throws IOException, InvalidMazeException{
+        in.readInt();
+        int version = in.readInt();
+        if(version < 1 || version > SNAPSHOT_VERSION)throw new StreamCorruptedException("Unsupported route file version " + version);
+        int mode = in.readInt();
+        int flags = in.readInt();
+        if(mode < 0 || mode >= Mode.values().length)throw new StreamCorruptedException("Unknown route finder mode " + mode);
+        RouteFinder r = new RouteFinder(Maze.fromBinary(in), Mode.values()[mode]);
+        r.readState(in, flags);
+        return r;
+    }
+
+    /**
+     * Reads the search state written by writeState, 'flags' being the flags from the route finder file header
+     * @param in
+     * @param flags
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    private void readState(DataInput in, int flags) throws IOException{
+        finished = (flags & FINISHED) != 0;
+        initialized = (flags & INITIALIZED) != 0;
+        route = new int[16];
+        pathEnd = -1;
+        if(!initialized)return;
+        int cells = maze.getCellCount();
+        states = CellStates.read(in, cells);
+        routeSize = readLength(in, cells);
+        route = new int[Math.max(16, routeSize)];
+        for(int i=0; i<routeSize; i++)route[i] = readCell(in, cells);
+        if(getMode() != Mode.BREADTH_FIRST)return;
+        pathEnd = in.readInt();
+        if(pathEnd < -1 || pathEnd >= cells)throw new StreamCorruptedException("Cell out of range " + pathEnd);
+        queue = new IntQueue();
+        for(int i=readLength(in, cells); i>0; i--)queue.add(readCell(in, cells));
+        byte[] packed = new byte[(cells + 3) >>> 2];
+        in.readFully(packed);
+        cameFrom = new byte[cells];
+        for(int i=0; i<cells; i++)cameFrom[i] = (byte)((packed[i >>> 2] >>> ((i & 3) << 1)) & 3);
+    }
+
+    /**
+     * Serialises the route finder as its maze followed by the mode, flags and search state of the 
+     * route finder file format, so the route is written as cell indices rather than tiles
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException{
+        syncRoute();
+        out.defaultWriteObject();
+        out.writeObject(maze);
+        out.writeInt(getMode().ordinal());
+        out.writeInt((finished ? FINISHED : 0) | (initialized ? INITIALIZED : 0));
+        writeState(out);
+    }
+
+    /**
+     * Reads a route finder written by writeObject, or one saved before it with the route and 
+     * dead ends as stacks of tiles, which is carried on depth first
+     * @param in
+     * @throws IOException
+     * @throws ClassNotFoundException
+     * @author MohamedBenRahuma
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException{
+        ObjectInputStream.GetField fields = in.readFields();
+        if(fields.getObjectStreamClass().getField("route") != null){
+            maze = (Maze)fields.get("maze", null);
+            if(maze == null)throw new InvalidObjectException("Missing maze");
+            mode = Mode.DEPTH_FIRST;
+            route = new int[16];
+            pathEnd = -1;
+            finished = fields.get("finished", false);
+            initialized = fields.get("initialized", false);
+            if(!initialized)return;
+            states = new CellStates(maze.getCellCount());
+            for(Tile t : (List<Tile>)fields.get("nonRoute", Collections.emptyList()))states.set(legacyCell(t), CellStates.DEAD_END);
+            for(Tile t : (List<Tile>)fields.get("route", Collections.emptyList())){
+                push(legacyCell(t));
+                states.set(route[routeSize - 1], CellStates.ON_ROUTE);
+            }
+            return;
+        }
+        maze = (Maze)in.readObject();
+        if(maze == null)throw new InvalidObjectException("Missing maze");
+        int m = in.readInt();
+        if(m < 0 || m >= Mode.values().length)throw new InvalidObjectException("Unknown route finder mode " + m);
+        mode = Mode.values()[m];
+        readState(in, in.readInt());
+    }
+
+    private int legacyCell(Tile t) throws InvalidObjectException{
+        int cell = maze.indexOf(t);
+        if(cell == -1)throw new InvalidObjectException("Tile not in maze");
+        return cell;
+    }
+
+    private static int readLength(DataInput in, int cells) throws IOException{
+        int length = in.readInt();
+        if(length < 0 || length > cells)throw new StreamCorruptedException("Length out of range " + length);
+        return length;
+    }
+
+    private static int readCell(DataInput in, int cells) throws IOException{
+        int cell = in.readInt();
+        if(cell < 0 || cell >= cells)throw new StreamCorruptedException("Cell out of range " + cell);
+        return cell;
+    }
+
+    transient boolean initialized = false;
+    private transient CellStates states;
+    private transient IntQueue queue;
+    private transient StepListener listener;
+    private transient StepJournal journal;
+    private transient int listenerInterval;
+    private transient byte[] cameFrom;
+    private transient int pathEnd = -1;
 
     /**
      * Steps through the maze until either no rout is found at which exception is thrown 
-     * or the maze has been successfully traversed 
+     * or the maze has been successfully traversed. Each call moves one tile in depth first mode, 
+     * and expands one tile in breadth first mode 
      * @return
      * @throws NoRouteFoundException
      * @author MohamedBenRahuma
      */
     public boolean step() throws NoRouteFoundException{
-        Maze.Direction[] directions = {Maze.Direction.EAST, Maze.Direction.WEST, Maze.Direction.NORTH, Maze.Direction.SOUTH};
-        if(!finished) {
-            if (route.isEmpty() && !initialized) {
-                route.add(maze.getEntrance());
-                initialized = true;
-            }
-            if(route.isEmpty() && initialized){
-                throw new NoRouteFoundException();
+        if(mode == Mode.BREADTH_FIRST)return stepBreadthFirst();
+        if(finished)return false;
+        solveDepthFirst(1);
+        return finished;
+    }
+    /**
+     * Steps until the maze has been traversed, in a tight loop rather than through step. 
+     * The route found is the same as calling step until it returns true
+     * @return
+     * @throws NoRouteFoundException
+     * @author MohamedBenRahuma
+     */
+    public SolveResult solve() throws NoRouteFoundException{
+        return solve(Long.MAX_VALUE);
+    }
+
+    /**
+     * Takes at most 'maxSteps' steps toward the exit, in a tight loop rather than through step. 
+     * Stepping afterwards carries on from where this left off
+     * @param maxSteps
+     * @return
+     * @throws NoRouteFoundException
+     * @author MohamedBenRahuma
+     */
+    public SolveResult solve(long maxSteps) throws NoRouteFoundException{
+        long start = System.nanoTime();
+        long steps = run(maxSteps);
+        syncRoute();
+        int deadEnds = states == null ? 0 : states.count(CellStates.DEAD_END);
+        int cellsVisited = states == null ? 0 : states.countVisited();
+        return new SolveResult(new ArrayList<>(getRoute()), finished, steps, deadEnds, cellsVisited, 
+            System.nanoTime() - start);
+    }
+
+    /**
+     * Takes up to 'n' steps, stopping early once the exit is reached. 
+     * Returns true if one of the steps reached the exit, like step does
+     * @param n
+     * @return
+     * @throws NoRouteFoundException
+     * @author MohamedBenRahuma
+     */
+    public boolean step(int n) throws NoRouteFoundException{
+        return advance(n, null);
+    }
+
+    /**
+     * Steps until 'done' holds for this route finder or the exit is reached, 'done' is checked before every step. 
+     * Returns true if one of the steps reached the exit, like step does
+     * @param done
+     * @return
+     * @throws NoRouteFoundException
+     * @author MohamedBenRahuma
+     */
+    public boolean stepUntil(Predicate<RouteFinder> done) throws NoRouteFoundException{
+        return advance(Long.MAX_VALUE, done);
+    }
+
+    /**
+     * Sets the listener told about progress every 'every' steps of step(int) and stepUntil, null removes it
+     * @param l
+     * @param every
+     * @author MohamedBenRahuma
+     */
+    public void setStepListener(StepListener l, int every){
+        if(l != null && every < 1)throw new IllegalArgumentException("every must be at least 1");
+        listener = l;
+        listenerInterval = every;
+    }
+
+    private boolean advance(long maxSteps, Predicate<RouteFinder> done) throws NoRouteFoundException{
+        boolean wasFinished = finished;
+        long taken = 0;
+        while(!finished && taken < maxSteps && (done == null || !done.test(this))){
+            long batch = done == null ? maxSteps - taken : 1;
+            if(listener != null)batch = Math.min(batch, listenerInterval - taken % listenerInterval);
+            taken += run(batch);
+            if(listener != null && taken % listenerInterval == 0){
+                syncRoute();
+                listener.progress(taken, routeSize, states == null ? 0 : states.countVisited());
             }
-            if (!route.isEmpty()) {
-                Tile currentTile = route.peek();
-                Maze.Direction directionToGo = null;
+        }
+        return !wasFinished && finished;
+    }
 
-                for (Maze.Direction d : directions) {
-                    if (maze.getAdjacentTile(currentTile, d) != null && !visited.contains(maze.getAdjacentTile(currentTile, d)) && maze.getAdjacentTile(currentTile, d).getType() != Tile.Type.WALL) {
-                        directionToGo = d;
+    // takes up to 'maxSteps' steps in the route finder's mode, returning how many were taken
+    private long run(long maxSteps) throws NoRouteFoundException{
+        if(getMode() == Mode.DEPTH_FIRST)return solveDepthFirst(maxSteps);
+        long steps = 0;
+        while(!finished && steps < maxSteps){
+            steps++;
+            stepBreadthFirst();
+        }
+        return steps;
+    }
+
+    /**
+     * The depth first search, taking at most 'maxSteps' steps, step takes them one at a time. 
+     * It runs on local copies of the route fields that are written back when it stops
+     * @param maxSteps
+     * @return
+     * @throws NoRouteFoundException
+     * @author MohamedBenRahuma
+     */
+    private long solveDepthFirst(long maxSteps) throws NoRouteFoundException{
+        if(finished)return 0;
+        int[] stack = route;
+        int top = routeSize;
+        long steps = 0;
+        try{
+            while(steps < maxSteps){
+                steps++;
+                if(top == 0 && !initialized){
+                    states = new CellStates(maze.getCellCount());
+                    stack[top++] = maze.indexOf(maze.getEntrance());
+                    states.set(stack[0], CellStates.ON_ROUTE);
+                    if(journal != null)journal.record(StepJournal.PUSH, stack[0]);
+                    initialized = true;
+                }
+                if(top == 0)throw new NoRouteFoundException();
+                int current = stack[top - 1];
+                int next = -1;
+                for (int moves = maze.getPassableMask(current); moves != 0; moves &= ~(1 << FIRST[moves])) {
+                    int n = maze.neighbour(current, BY_ORDINAL[FIRST[moves]]);
+                    if (!states.isVisited(n)) {
+                        next = n;
                         break;
                     }
                 }
-                if (directionToGo == null) {
-                    nonRoute.add(route.pop());
-                } else {
-                    if (maze.getAdjacentTile(currentTile, directionToGo).toString().equals("x")) {
-                        route.add(maze.getAdjacentTile(currentTile, directionToGo));
-                        finished = true;
-                        return true;
-                    }
-                    route.add(maze.getAdjacentTile(currentTile, directionToGo));
-                    visited.add(maze.getAdjacentTile(currentTile, directionToGo));
+                if(next == -1){
+                    states.set(stack[--top], CellStates.DEAD_END);
+                    if(journal != null)journal.record(StepJournal.POP, stack[top]);
+                    continue;
+                }
+                if(top == stack.length)stack = Arrays.copyOf(stack, top * 2);
+                stack[top++] = next;
+                states.set(next, CellStates.ON_ROUTE);
+                if(journal != null)journal.record(StepJournal.PUSH, next);
+                if(maze.getType(next) == Tile.Type.EXIT){
+                    finished = true;
+                    break;
                 }
             }
         }
+        finally{
+            route = stack;
+            routeSize = top;
+        }
+        return steps;
+    }
+
+    /**
+     * Breadth first step: expands the tile at the front of the queue, queueing its unvisited neighbours. 
+     * The route shows the path from the entrance to the tile being expanded, and tiles already expanded 
+     * are shown as dead ends. The exit is recognised when it is queued, so the route found is a shortest one
+     * @return
+     * @throws NoRouteFoundException
+     * @author MohamedBenRahuma
+     */
+    private boolean stepBreadthFirst() throws NoRouteFoundException{
+        if(finished)return false;
+        if(!initialized){
+            int entrance = maze.indexOf(maze.getEntrance());
+            queue = new IntQueue();
+            cameFrom = new byte[maze.getCellCount()];
+            states = new CellStates(maze.getCellCount());
+            states.set(entrance, CellStates.QUEUED);
+            queue.add(entrance);
+            if(journal != null)journal.record(StepJournal.QUEUE, entrance);
+            initialized = true;
+        }
+        if(queue.isEmpty()){
+            if(journal != null)journal.record(StepJournal.EXHAUSTED, 0);
+            for(int i=0; i<routeSize; i++)states.set(route[i], CellStates.DEAD_END);
+            routeSize = 0;
+            pathEnd = -1;
+            throw new NoRouteFoundException();
+        }
+        int current = queue.remove();
+        states.set(current, CellStates.DEAD_END);
+        if(journal != null)journal.record(StepJournal.EXPAND, current);
+        pathEnd = current;
+        return expand(current);
+    }
+
+    /**
+     * Queues the unvisited neighbours of 'current', returning true if one of them is the exit
+     * @param current
+     * @return
+     * @author MohamedBenRahuma
+     */
+    private boolean expand(int current){
+        for (int moves = maze.getPassableMask(current); moves != 0; moves &= ~(1 << FIRST[moves])) {
+            Maze.Direction d = BY_ORDINAL[FIRST[moves]];
+            int n = maze.neighbour(current, d);
+            if (states.isVisited(n)) continue;
+            states.set(n, CellStates.QUEUED);
+            cameFrom[n] = (byte)d.opposite().ordinal();
+            if(journal != null)journal.record(StepJournal.QUEUE, cameFrom[n], n);
+            if (maze.getType(n) == Tile.Type.EXIT) {
+                pathEnd = n;
+                finished = true;
+                return true;
+            }
+            queue.add(n);
+        }
         return false;
     }
+
+    /**
+     * In breadth first mode the route is only rebuilt, by walking back to the entrance, when it is looked at. 
+     * The cells of the old route go back to being expanded cells off the route
+     * @author MohamedBenRahuma
+     */
+    private void syncRoute(){
+        if(cameFrom == null || pathEnd == -1)return;
+        int entrance = maze.indexOf(maze.getEntrance());
+        int length = 1;
+        for(int c = pathEnd; c != entrance; c = maze.neighbour(c, BY_ORDINAL[cameFrom[c]])){
+            length++;
+        }
+        for(int i=0; i<routeSize; i++)states.set(route[i], CellStates.DEAD_END);
+        if(route.length < length)route = new int[Math.max(length, route.length * 2)];
+        for(int c = pathEnd, i = length - 1; i >= 0; i--){
+            route[i] = c;
+            states.set(c, CellStates.ON_ROUTE);
+            if(i > 0)c = maze.neighbour(c, BY_ORDINAL[cameFrom[c]]);
+        }
+        routeSize = length;
+        pathEnd = -1;
+    }
+
+    /**
+     * returns what the search has done with tile 't', looked up in constant time
+     * @param t
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public CellState getCellState(Tile t){
+        return getCellState(maze.indexOf(t));
+    }
+
+    /**
+     * returns what the search has done with the cell at index 'cell', looked up in constant time. 
+     * Cells outside the maze are UNVISITED
+     * @param cell
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public CellState getCellState(int cell){
+        syncRoute();
+        if(states == null || cell < 0 || cell >= maze.getCellCount())return CellState.UNVISITED;
+        return CELL_STATES[states.get(cell)];
+    }
+
+    /**
+     * Writes the string representation of the route finder to 'out', a row at a time in a single pass. 
+     * Each cell's symbol comes from the cell state overlay
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    public void render(Appendable out) throws IOException{
+        syncRoute();
+        maze.render(out, cell -> {
+            int state = states == null ? CellStates.UNVISITED : states.get(cell);
+            return state == CellStates.ON_ROUTE ? '*' : state == CellStates.DEAD_END ? '-' : 0;
+        });
+    }
+
+    /**
+     * Writes the string representation of the route finder to 'out' and flushes it
+     * @param out
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    public void writeTo(Writer out) throws IOException{
+        render(out);
+        out.flush();
+    }
+
     /**
      * return string representation of route finder
      * @author MohamedBenRahuma
      */
     public String toString(){
-        String res = "";
-        List<List<Tile>> tiles = maze.getTiles();
-        for(int i=0; i<tiles.size(); i++){
-            for(int j=0; j<tiles.get(i).size(); j++){
-                if(j==0)res += (tiles.size()-1) - i + "\t";
-                if(route.contains(tiles.get(i).get(j))){
-                    res += "*" + " ";
-                }
-                else if(nonRoute.contains(tiles.get(i).get(j))){
-                    res += "-" + " ";
-                }
-                else res += tiles.get(i).get(j).toString() + " ";
-                if(j == tiles.get(i).size()-1){
-                    res += "\n";
-                }
-            }
+        StringBuilder res = new StringBuilder();
+        try{
+            render(res);
         }
-        res += "\n\t";
-        for(int i=0; i<tiles.get(0).size(); i++){
-            res += i + " ";
+        catch(IOException e){
+            throw new UncheckedIOException(e);
         }
-        return res;
+        return res.toString();
     }
 
 
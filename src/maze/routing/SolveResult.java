@@ -0,0 +1,86 @@
+package maze.routing;
+
+import java.util.List;
+
+import maze.Tile;
+
+/**
+ * Result of RouteFinder.solve, the route found and statistics of the run
+ * @author MohamedBenRahuma
+ */
+public class SolveResult {
+    private final List<Tile> route;
+    private final boolean finished;
+    private final long steps;
+    private final int deadEnds;
+    private final int cellsVisited;
+    private final long nanos;
+
+    SolveResult(List<Tile> route, boolean finished, long steps, int deadEnds, int cellsVisited, long nanos){
+        this.route = route;
+        this.finished = finished;
+        this.steps = steps;
+        this.deadEnds = deadEnds;
+        this.cellsVisited = cellsVisited;
+        this.nanos = nanos;
+    }
+
+    /**
+     * returns the route at the end of the run, from the entrance to the exit if it finished
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public List<Tile> getRoute(){
+        return route;
+    }
+
+    /**
+     * returns true if the exit was reached, false if the run stopped at its step limit
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public boolean isFinished(){
+        return finished;
+    }
+
+    /**
+     * returns number of steps taken by this run
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public long getSteps(){
+        return steps;
+    }
+
+    /**
+     * returns number of cells marked as dead ends, in breadth first mode the expanded cells off the route
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getDeadEnds(){
+        return deadEnds;
+    }
+
+    /**
+     * returns number of cells the route finder has visited
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public int getCellsVisited(){
+        return cellsVisited;
+    }
+
+    /**
+     * returns nanoseconds the run took
+     * @return
+     * @author MohamedBenRahuma
+     */
+    public long getNanos(){
+        return nanos;
+    }
+
+    public String toString(){
+        return (finished ? "finished" : "unfinished") + ", route: " + route.size() + ", steps: " + steps 
+            + ", dead ends: " + deadEnds + ", visited: " + cellsVisited + ", " + nanos / 1000 + "us";
+    }
+}
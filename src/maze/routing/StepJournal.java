@@ -0,0 +1,177 @@
+package maze.routing;
+import maze.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append only journal of the changes RouteFinder.step makes, so a solve can be rebuilt by replaying it. 
+ * Format: big-endian ints magic, version, mode ordinal, maze width and maze height, then fixed size records 
+ * of an op byte and a big-endian int cell. Depth first solves record PUSH and POP, breadth first solves 
+ * record QUEUE, with the direction back toward the entrance in the high bits of the op, EXPAND, 
+ * and EXHAUSTED, with cell 0, when the queue runs out without reaching the exit. 
+ * Records are buffered and written through a FileChannel when the buffer fills, on flush and on close, 
+ * so a crash loses at most the buffered records and a torn last record is ignored. 
+ * A step can write several records, RouteFinder.resume finishes off a step the journal stops partway through
+ * @author MohamedBenRahuma
+ */
+class StepJournal implements Closeable {
+    static final int MAGIC = 0x4D415A4A;
+    static final int VERSION = 1;
+    static final int HEADER = 20;
+    static final int RECORD = 5;
+    static final int PUSH = 1;
+    static final int POP = 2;
+    static final int QUEUE = 3;
+    static final int EXPAND = 4;
+    static final int EXHAUSTED = 5;
+
+    /**
+     * Told about each record of a journal in order, 'op' without the direction bits
+     * @author MohamedBenRahuma
+     */
+    interface Replayer {
+        void apply(int op, int direction, int cell) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocate(RECORD * 13107);
+
+    private StepJournal(FileChannel channel){
+        this.channel = channel;
+    }
+
+    /**
+     * Creates a journal at 'path', replacing any file there, for a solve of 'maze' in 'mode'
+     * @param path
+     * @param mode
+     * @param maze
+     * @return
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    static StepJournal create(String path, RouteFinder.Mode mode, Maze maze) throws IOException{
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        StepJournal journal = new StepJournal(channel);
+        journal.buf.putInt(MAGIC).putInt(VERSION).putInt(mode.ordinal()).putInt(maze.getWidth()).putInt(maze.getHeight());
+        journal.flush();
+        return journal;
+    }
+
+    /**
+     * Opens the journal at 'path' to carry on appending after its first 'records' records, dropping anything after them
+     * @param path
+     * @param records
+     * @return
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    static StepJournal append(String path, long records) throws IOException{
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.WRITE);
+        long end = HEADER + records * RECORD;
+        channel.truncate(end);
+        channel.position(end);
+        return new StepJournal(channel);
+    }
+
+    /**
+     * Checks the header of the journal at 'path' fits 'maze' and returns the mode of the solve it records
+     * @param path
+     * @param maze
+     * @return
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    static RouteFinder.Mode readMode(String path, Maze maze) throws IOException{
+        try(DataInputStream in = new DataInputStream(new FileInputStream(path))){
+            if(in.readInt() != MAGIC)throw new StreamCorruptedException("Not a step journal: " + path);
+            int version = in.readInt();
+            if(version < 1 || version > VERSION)throw new StreamCorruptedException("Unsupported step journal version " + version);
+            int mode = in.readInt();
+            if(mode < 0 || mode >= RouteFinder.Mode.values().length)throw new StreamCorruptedException("Unknown route finder mode " + mode);
+            if(in.readInt() != maze.getWidth() || in.readInt() != maze.getHeight()){
+                throw new StreamCorruptedException("Journal is for a maze of a different size");
+            }
+            return RouteFinder.Mode.values()[mode];
+        }
+    }
+
+    /**
+     * Feeds every whole record of the journal at 'path' to 'replayer', returning how many there were
+     * @param path
+     * @param cells
+     * @param replayer
+     * @return
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    static long replay(String path, int cells, Replayer replayer) throws IOException{
+        try(FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)){
+            long records = Math.max(0, channel.size() - HEADER) / RECORD;
+            ByteBuffer in = ByteBuffer.allocate(RECORD * 13107);
+            channel.position(HEADER);
+            for(long left = records; left > 0; ){
+                in.clear();
+                in.limit((int)Math.min(in.capacity(), left * RECORD));
+                while(in.hasRemaining() && channel.read(in) != -1);
+                in.flip();
+                while(in.remaining() >= RECORD){
+                    int op = in.get();
+                    int cell = in.getInt();
+                    if(cell < 0 || cell >= cells)throw new StreamCorruptedException("Cell out of range " + cell);
+                    replayer.apply(op & 15, (op >>> 4) & 3, cell);
+                    left--;
+                }
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Appends a record, written out once the buffer fills
+     * @param op
+     * @param direction
+     * @param cell
+     * @author MohamedBenRahuma
+     */
+    void record(int op, int direction, int cell){
+        if(buf.remaining() < RECORD){
+            try{
+                flush();
+            }
+            catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+        buf.put((byte)(op | (direction << 4))).putInt(cell);
+    }
+
+    void record(int op, int cell){
+        record(op, 0, cell);
+    }
+
+    /**
+     * Writes the buffered records to the file
+     * @throws IOException
+     * @author MohamedBenRahuma
+     */
+    void flush() throws IOException{
+        buf.flip();
+        while(buf.hasRemaining()){
+            channel.write(buf);
+        }
+        buf.clear();
+    }
+
+    public void close() throws IOException{
+        try{
+            flush();
+        }
+        finally{
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package maze.routing;
+
+/**
+ * Listener told about the progress of RouteFinder.step(int) and RouteFinder.stepUntil every so many steps
+ * @author MohamedBenRahuma
+ */
+public interface StepListener {
+
+    /**
+     * Called with the steps taken so far in the current call, the length of the route 
+     * and the number of cells the route finder has visited
+     * @param steps
+     * @param routeLength
+     * @param cellsVisited
+     * @author MohamedBenRahuma
+     */
+    void progress(long steps, int routeLength, int cellsVisited);
+}
@@ -15,63 +15,36 @@ import java.util.List;
  */
 public class MazeGraphics {
     /**
-     * function returns a group representing a graphical representation of the maze 
+     * function returns a group representing a graphical representation of the maze. 
+     * Cells are drawn in index order, one rectangle each, with the route finder's state of a cell 
+     * looked up in constant time, so a redraw is linear in the size of the maze
      * @param m
      * @param rf
      * @return
      * @author MohamedBenRahuma
      */
     public static Group mazeGraphic(Maze m, RouteFinder rf){
-        List<Rectangle> walls = new ArrayList<>();
-        List<List<Tile>> tiles = m.getTiles();
-        int x = 0;
-        int y = 50;
-        for(int i=0; i<tiles.size(); i++){
-            for(int j=0; j<tiles.get(i).size(); j++){
-                if(tiles.get(i).get(j).getType() == Tile.Type.WALL){
-                    Rectangle r = new Rectangle(x, y, 20, 20);
-                    r.setFill(Color.YELLOW);
-                    r.setStroke(Color.BLACK);
-                    walls.add(r);
-                }
-                if(tiles.get(i).get(j).getType() == Tile.Type.ENTRANCE){
-                    Rectangle r = new Rectangle(x, y, 20, 20);
-                    r.setFill(Color.GREEN);
-                    r.setStroke(Color.BLACK);
-                    walls.add(r);
-                }
-                if(tiles.get(i).get(j).getType() == Tile.Type.EXIT){
-                    Rectangle r = new Rectangle(x, y, 20, 20);
-                    r.setFill(Color.BLUE);
-                    r.setStroke(Color.BLACK);
-                    walls.add(r);
-                }
-                if(tiles.get(i).get(j).getType() == Tile.Type.CORRIDOR){
-                    Rectangle r = new Rectangle(x, y, 20, 20);
-                    r.setFill(Color.LIGHTGREY);
-                    r.setStroke(Color.BLACK);
-                    walls.add(r);
-
-                }
-                if(rf.nonRoute.contains(tiles.get(i).get(j))){
-                    Rectangle r = new Rectangle(x, y, 20, 20);
-                    r.setFill(Color.RED);
-                    r.setStroke(Color.BLACK);
-                    walls.add(r);
-                }
-                if(rf.getRoute().contains(tiles.get(i).get(j))){
-                    Rectangle r = new Rectangle(x, y, 20, 20);
-                    r.setFill(Color.GREEN);
-                    r.setStroke(Color.BLACK);
-                    walls.add(r);
-                }
-                x+=20;
-            }
-            x=0;
-            y+=20;
+        List<Rectangle> walls = new ArrayList<>(m.getCellCount());
+        int width = m.getWidth();
+        for(int i=0; i<m.getCellCount(); i++){
+            Rectangle r = new Rectangle(i % width * 20, 50 + i / width * 20, 20, 20);
+            r.setFill(colourOf(m.getType(i), rf.getCellState(i)));
+            r.setStroke(Color.BLACK);
+            walls.add(r);
         }
         Group g = new Group();
         g.getChildren().addAll(walls);
         return g;
     }
+
+    private static Color colourOf(Tile.Type type, RouteFinder.CellState state){
+        if(state == RouteFinder.CellState.ON_ROUTE)return Color.GREEN;
+        if(state == RouteFinder.CellState.DEAD_END)return Color.RED;
+        switch(type){
+            case WALL: return Color.YELLOW;
+            case ENTRANCE: return Color.GREEN;
+            case EXIT: return Color.BLUE;
+            default: return Color.LIGHTGREY;
+        }
+    }
 }
@@ -0,0 +1,116 @@
+package tests.dev.functional;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import maze.Maze;
+import maze.Tile;
+
+public class MazeCellTest {
+
+    private static Path WORKING_DIR = Paths.get("");
+    private static Path TEST_MAZES_DIR = Paths.get(WORKING_DIR.toString(), "resources", "mazes");
+
+    // ~~~~~~~~~~ Utility Functions ~~~~~~~~~~
+
+    public Maze setupForMaze1() {
+        Maze rtn = null;
+        Path filePath = Paths.get(TEST_MAZES_DIR.toString(), "maze1.txt");
+        try {
+            rtn = Maze.fromTxt(filePath.toString());
+        } catch (Exception e) { fail(); }
+        return rtn;
+    }
+
+    public int cellAt(Maze maze, int x, int y) {
+        return maze.indexOf(maze.getTileAtLocation(maze.new Coordinate(x, y)));
+    }
+
+    public int expectedMask(Maze maze, int cell) {
+        int mask = 0;
+        Tile tile = maze.getTile(cell);
+        for (Maze.Direction d : Maze.Direction.values()) {
+            Tile next = maze.getAdjacentTile(tile, d);
+            if (next != null && next.isNavigable()) mask |= 1 << d.ordinal();
+        }
+        return mask;
+    }
+
+    // ~~~~~~~~~~ Functionality tests ~~~~~~~~~~
+
+    @Test
+    public void ensureCellIndicesAreRowMajorFromTopRow() {
+        Maze maze = setupForMaze1();
+        assertEquals(6, maze.getWidth());
+        assertEquals(6, maze.getHeight());
+        assertEquals(36, maze.getCellCount());
+        assertEquals(0, cellAt(maze, 0, 5));
+        assertEquals(35, cellAt(maze, 5, 0));
+        assertSame(Tile.Type.ENTRANCE, maze.getType(0));
+    }
+
+    @Test
+    public void ensureNeighbourMatchesGetAdjacentTile() {
+        Maze maze = setupForMaze1();
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            for (Maze.Direction d : Maze.Direction.values()) {
+                Tile adjacent = maze.getAdjacentTile(maze.getTile(cell), d);
+                assertEquals(maze.indexOf(adjacent), maze.neighbour(cell, d));
+            }
+        }
+    }
+
+    @Test
+    public void ensureNeighbourOutsideMazeIsMinusOne() {
+        Maze maze = setupForMaze1();
+        assertEquals(-1, maze.neighbour(0, Maze.Direction.NORTH));
+        assertEquals(-1, maze.neighbour(0, Maze.Direction.WEST));
+        assertEquals(-1, maze.neighbour(35, Maze.Direction.SOUTH));
+        assertEquals(-1, maze.neighbour(35, Maze.Direction.EAST));
+    }
+
+    @Test
+    public void ensureForEachNeighbourVisitsEachNeighbour() {
+        Maze maze = setupForMaze1();
+        int[] count = new int[1];
+        maze.forEachNeighbour(cellAt(maze, 2, 2), n -> count[0]++);
+        assertEquals(4, count[0]);
+        count[0] = 0;
+        maze.forEachNeighbour(0, n -> count[0]++);
+        assertEquals(2, count[0]);
+    }
+
+    @Test
+    public void ensurePassableMasks() {
+        Maze maze = setupForMaze1();
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            assertEquals(expectedMask(maze, cell), maze.getPassableMask(cell));
+        }
+    }
+
+    @Test
+    public void ensurePassableMasksFollowChangedTiles() {
+        Maze maze = setupForMaze1();
+        Tile wall = maze.getTile(cellAt(maze, 5, 5));
+        maze.getTiles().get(1).set(1, wall);
+        for (int n = 0; n < maze.getCellCount(); n++) {
+            assertEquals(expectedMask(maze, n), maze.getPassableMask(n));
+        }
+        assertEquals(0, maze.getPassableMask(cellAt(maze, 0, 4)) & (1 << Maze.Direction.EAST.ordinal()));
+    }
+
+    @Test
+    public void ensurePackedMazeWorksOutPassableMasks() {
+        Maze maze = setupForMaze1();
+        maze.pack();
+        Tile wall = maze.getTile(cellAt(maze, 5, 5));
+        maze.getTiles().get(1).set(1, wall);
+        for (int n = 0; n < maze.getCellCount(); n++) {
+            assertEquals(expectedMask(maze, n), maze.getPassableMask(n));
+        }
+    }
+
+}
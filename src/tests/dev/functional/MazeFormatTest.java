@@ -0,0 +1,633 @@
+package tests.dev.functional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import maze.Maze;
+import maze.MazeConverter;
+import maze.PageCacheStats;
+import maze.InvalidMazeException;
+import maze.NoEntranceException;
+import maze.NoExitException;
+import maze.RaggedMazeException;
+import maze.Tile;
+import maze.routing.NoRouteFoundException;
+import maze.routing.RouteCodec;
+import maze.routing.RouteFinder;
+
+public class MazeFormatTest {
+
+    private static Path WORKING_DIR = Paths.get("");
+    private static Path TEST_MAZES_DIR = Paths.get(WORKING_DIR.toString(), "resources", "mazes");
+    private static Path TEST_ROUTES_DIR = Paths.get(WORKING_DIR.toString(), "resources", "routes");
+
+    // ~~~~~~~~~~ Utility Functions ~~~~~~~~~~
+
+    public String mazePath(String... names) {
+        return Paths.get(TEST_MAZES_DIR.toString(), names).toString();
+    }
+
+    public String tempFile(String suffix) {
+        try {
+            File f = File.createTempFile("maze", suffix);
+            f.deleteOnExit();
+            return f.getPath();
+        } catch (IOException e) {
+            fail(e.getClass().getName() + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T roundTrip(T obj) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(obj);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    public void assertMazesAreEqual(Maze m1, Maze m2) {
+        List<List<Tile>> t1 = m1.getTiles();
+        List<List<Tile>> t2 = m2.getTiles();
+        assertEquals(t1.size(), t2.size());
+        for (int i = 0; i < t1.size(); i++) {
+            assertEquals(t1.get(i).size(), t2.get(i).size());
+            for (int j = 0; j < t1.get(i).size(); j++) {
+                assertSame(t1.get(i).get(j).getType(), t2.get(i).get(j).getType());
+            }
+        }
+        assertEquals(m1.getTileLocation(m1.getEntrance()).toString(), m2.getTileLocation(m2.getEntrance()).toString());
+        assertEquals(m1.getTileLocation(m1.getExit()).toString(), m2.getTileLocation(m2.getExit()).toString());
+        assertEquals(m1.toString(), m2.toString());
+    }
+
+    // ~~~~~~~~~~ Functionality tests ~~~~~~~~~~
+
+    @Test
+    public void ensureFromMappedTxtMatchesFromTxt() throws InvalidMazeException {
+        for (String name : new String[] {"maze1.txt", "maze2.txt"}) {
+            assertMazesAreEqual(Maze.fromTxt(mazePath(name)), Maze.fromMappedTxt(mazePath(name)));
+        }
+    }
+
+    @Test
+    public void ensureFromMappedTxtWithInvalidCharThrowsInvalidMazeException() {
+        Exception e = assertThrows(InvalidMazeException.class, () -> {
+            Maze.fromMappedTxt(mazePath("invalid", "invalidChar.txt"));
+        });
+        assertSame(e.getClass(), InvalidMazeException.class);
+    }
+
+    @Test
+    public void ensureFromMappedTxtWithRaggedMazeThrowsRaggedMazeException() {
+        assertThrows(RaggedMazeException.class, () -> {
+            Maze.fromMappedTxt(mazePath("invalid", "ragged.txt"));
+        });
+    }
+
+    @Test
+    public void ensureFromMappedTxtWithNoEntranceThrowsNoEntranceException() {
+        assertThrows(NoEntranceException.class, () -> {
+            Maze.fromMappedTxt(mazePath("invalid", "noEntrance.txt"));
+        });
+    }
+
+    @Test
+    public void ensureFromMappedTxtWithNoExitThrowsNoExitException() {
+        assertThrows(NoExitException.class, () -> {
+            Maze.fromMappedTxt(mazePath("invalid", "noExit.txt"));
+        });
+    }
+
+    @Test
+    public void ensureBinaryRoundTrip() throws InvalidMazeException {
+        for (String name : new String[] {"maze1.txt", "maze2.txt"}) {
+            Maze orig = Maze.fromTxt(mazePath(name));
+            String binary = tempFile(".mzb");
+            orig.toBinary(binary);
+            assertMazesAreEqual(orig, Maze.fromBinary(binary));
+        }
+    }
+
+    @Test
+    public void ensureBinaryIsPacked() throws InvalidMazeException {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze2.txt")).toBinary(binary);
+        // 24 byte header, then 13x9 cells at four to a byte
+        assertEquals(24 + (13 * 9 + 3) / 4, new File(binary).length());
+    }
+
+    @Test
+    public void ensureFromBinaryWithTxtFileThrowsInvalidMazeException() {
+        assertThrows(InvalidMazeException.class, () -> {
+            Maze.fromBinary(mazePath("maze1.txt"));
+        });
+    }
+
+    @Test
+    public void ensureFromBinaryWithTruncatedFileThrowsInvalidMazeException() throws Exception {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze2.txt")).toBinary(binary);
+        byte[] bytes = Files.readAllBytes(Paths.get(binary));
+        try (FileOutputStream out = new FileOutputStream(binary)) {
+            out.write(bytes, 0, bytes.length - 4);
+        }
+        assertThrows(InvalidMazeException.class, () -> {
+            Maze.fromBinary(binary);
+        });
+    }
+
+    @Test
+    public void ensureFromBinaryRejectsUnknownVersions() throws Exception {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze2.txt")).toBinary(binary);
+        byte[] bytes = Files.readAllBytes(Paths.get(binary));
+        for (byte version : new byte[] {0, 2, -1}) {
+            bytes[4] = version < 0 ? version : 0;
+            bytes[7] = version;
+            Files.write(Paths.get(binary), bytes);
+            assertThrows(InvalidMazeException.class, () -> {
+                Maze.fromBinary(binary);
+            });
+        }
+    }
+
+    @Test
+    public void ensureConverterRoundTrip() throws InvalidMazeException {
+        String binary = tempFile(".mzb");
+        String txt = tempFile(".txt");
+        MazeConverter.convert(mazePath("maze1.txt"), binary);
+        MazeConverter.convert(binary, txt);
+        assertMazesAreEqual(Maze.fromTxt(mazePath("maze1.txt")), Maze.fromTxt(txt));
+    }
+
+    @Test
+    public void ensurePackedMazeMatchesUnpacked() throws InvalidMazeException {
+        Maze packed = Maze.fromTxt(mazePath("maze2.txt"));
+        packed.pack();
+        assertTrue(packed.isPacked());
+        assertMazesAreEqual(Maze.fromTxt(mazePath("maze2.txt")), packed);
+    }
+
+    @Test
+    public void ensurePackingPagedMazeLetsGoOfTheFile() throws InvalidMazeException {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze2.txt")).toBinary(binary);
+        Maze maze = Maze.openPaged(binary, 8, 2);
+        maze.pack();
+        assertTrue(maze.isPacked());
+        assertNull(maze.getPageCacheStats());
+        assertMazesAreEqual(Maze.fromBinary(binary), maze);
+    }
+
+    @Test
+    public void ensureFromBinaryIsPacked() throws InvalidMazeException {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze1.txt")).toBinary(binary);
+        assertTrue(Maze.fromBinary(binary).isPacked());
+    }
+
+    @Test
+    public void ensurePackedMazeSolvesTheSame() throws InvalidMazeException, NoRouteFoundException {
+        Maze packed = Maze.fromTxt(mazePath("maze2.txt"));
+        packed.pack();
+        RouteFinder r1 = new RouteFinder(Maze.fromTxt(mazePath("maze2.txt")));
+        RouteFinder r2 = new RouteFinder(packed);
+        while (!r1.step());
+        while (!r2.step());
+        assertEquals(r1.toString(), r2.toString());
+    }
+
+    @Test
+    public void ensureOffHeapMazeMatchesOnHeap() throws InvalidMazeException {
+        Maze offHeap = Maze.fromTxt(mazePath("maze2.txt"));
+        offHeap.moveOffHeap();
+        assertTrue(offHeap.isOffHeap());
+        assertMazesAreEqual(Maze.fromTxt(mazePath("maze2.txt")), offHeap);
+        offHeap.close();
+    }
+
+    @Test
+    public void ensureMapBinaryMatchesFromBinary() throws InvalidMazeException {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze2.txt")).toBinary(binary);
+        try (Maze mapped = Maze.mapBinary(binary)) {
+            assertTrue(mapped.isOffHeap());
+            assertMazesAreEqual(Maze.fromBinary(binary), mapped);
+        }
+    }
+
+    @Test
+    public void ensureMappedMazeOpensReadOnlyFiles() throws Exception {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze2.txt")).toBinary(binary);
+        byte[] bytes = Files.readAllBytes(Paths.get(binary));
+        assertTrue(new File(binary).setWritable(false));
+        try (Maze mapped = Maze.mapBinary(binary)) {
+            assertNotNull(mapped);
+            Tile wall = mapped.getTile(0);
+            assertSame(Tile.Type.WALL, wall.getType());
+            int cell = mapped.indexOf(mapped.getEntrance()) + 1;
+            assertNotSame(Tile.Type.WALL, mapped.getType(cell));
+            mapped.getTiles().get(cell / mapped.getWidth()).set(cell % mapped.getWidth(), wall);
+            assertSame(Tile.Type.WALL, mapped.getType(cell));
+            assertTrue(mapped.isOffHeap());
+        }
+        assertArrayEquals(bytes, Files.readAllBytes(Paths.get(binary)));
+    }
+
+    @Test
+    public void ensureClosedMazeIsEmpty() throws InvalidMazeException {
+        Maze maze = Maze.fromTxt(mazePath("maze1.txt"));
+        maze.moveOffHeap();
+        maze.close();
+        assertEquals(0, maze.getTiles().size());
+        assertNull(maze.getTileAtLocation(maze.new Coordinate(0, 0)));
+        assertFalse(maze.tileInMaze(maze.getEntrance()));
+        assertNull(maze.getEntrance());
+        assertNull(maze.getExit());
+    }
+
+    @Test
+    public void ensureClosedMappedMazeHasNoEnds() throws InvalidMazeException {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze2.txt")).toBinary(binary);
+        Maze mapped = Maze.mapBinary(binary);
+        mapped.close();
+        assertNull(mapped.getEntrance());
+        assertNull(mapped.getExit());
+        assertEquals(0, mapped.getCellCount());
+    }
+
+    @Test
+    public void ensureOffHeapRouteCanBeSavedAndLoaded() throws InvalidMazeException, NoRouteFoundException {
+        Maze maze = Maze.fromTxt(mazePath("maze1.txt"));
+        maze.moveOffHeap();
+        RouteFinder orig = new RouteFinder(maze);
+        while (!orig.step());
+        String saved = tempFile(".route");
+        orig.save(saved);
+        RouteFinder loaded = RouteFinder.load(saved);
+        assertEquals(orig.toString(), loaded.toString());
+        maze.close();
+    }
+
+    @Test
+    public void ensurePagedMazeMatchesFromBinary() throws InvalidMazeException {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze2.txt")).toBinary(binary);
+        try (Maze paged = Maze.openPaged(binary, 8, 2)) {
+            assertMazesAreEqual(Maze.fromBinary(binary), paged);
+        }
+    }
+
+    @Test
+    public void ensurePagedMazeSolvesTheSame() throws InvalidMazeException, NoRouteFoundException {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze2.txt")).toBinary(binary);
+        try (Maze paged = Maze.openPaged(binary, 16, 3)) {
+            RouteFinder r1 = new RouteFinder(Maze.fromTxt(mazePath("maze2.txt")));
+            RouteFinder r2 = new RouteFinder(paged);
+            while (!r1.step());
+            while (!r2.step());
+            assertEquals(r1.toString(), r2.toString());
+            PageCacheStats stats = paged.getPageCacheStats();
+            assertTrue(stats.getHits() > 0);
+            assertTrue(stats.getMisses() > 0);
+            assertTrue(stats.getEvictions() > 0);
+            assertTrue(stats.getCachedPages() <= 3);
+        }
+    }
+
+    @Test
+    public void ensurePagedMazeIsReadOnly() throws InvalidMazeException {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze1.txt")).toBinary(binary);
+        try (Maze paged = Maze.openPaged(binary)) {
+            Tile wall = paged.getTileAtLocation(paged.new Coordinate(5, 5));
+            assertThrows(UnsupportedOperationException.class, () -> {
+                paged.getTiles().get(1).set(1, wall);
+            });
+        }
+    }
+
+    @Test
+    public void ensureUnpagedMazeHasNoPageCacheStats() throws InvalidMazeException {
+        assertNull(Maze.fromTxt(mazePath("maze1.txt")).getPageCacheStats());
+    }
+
+    @Test
+    public void ensureMazeBinaryStreamRoundTripLeavesTrailingData() throws Exception {
+        Maze orig = Maze.fromTxt(mazePath("maze2.txt"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orig.toBinary(out);
+        out.write(42);
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertMazesAreEqual(orig, Maze.fromBinary(in));
+        assertEquals(42, in.read());
+    }
+
+    @Test
+    public void ensureRouteFileIsCompact() throws InvalidMazeException, NoRouteFoundException {
+        Maze maze = Maze.fromTxt(mazePath("maze2.txt"));
+        RouteFinder finder = new RouteFinder(maze);
+        while (!finder.step());
+        String saved = tempFile(".route");
+        finder.save(saved);
+        int cells = maze.getCellCount();
+        long expected = 16 + 24 + (cells + 3) / 4 + (cells + 3) / 4 + 4 + 4 * finder.getRoute().size();
+        assertEquals(expected, new File(saved).length());
+    }
+
+    @Test
+    public void ensureBreadthFirstRouteCanBeSavedMidSolveAndResumed() throws InvalidMazeException, NoRouteFoundException {
+        Maze maze = Maze.fromTxt(mazePath("maze2.txt"));
+        RouteFinder orig = new RouteFinder(maze, RouteFinder.Mode.BREADTH_FIRST);
+        orig.step(20);
+        String saved = tempFile(".route");
+        orig.save(saved);
+        RouteFinder loaded = RouteFinder.load(saved);
+        assertSame(RouteFinder.Mode.BREADTH_FIRST, loaded.getMode());
+        assertEquals(orig.toString(), loaded.toString());
+        while (!orig.step());
+        while (!loaded.step());
+        assertEquals(orig.toString(), loaded.toString());
+        assertEquals(orig.getRoute().size(), loaded.getRoute().size());
+    }
+
+    @Test
+    public void ensureRouteFileFromNewerVersionIsNotLoaded() throws Exception {
+        String saved = tempFile(".route");
+        new RouteFinder(Maze.fromTxt(mazePath("maze1.txt"))).save(saved);
+        byte[] bytes = Files.readAllBytes(Paths.get(saved));
+        bytes[7]++;
+        Files.write(Paths.get(saved), bytes);
+        assertNull(RouteFinder.load(saved));
+    }
+
+    public void assertSameCells(Maze maze, List<Tile> expected, List<Tile> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(maze.indexOf(expected.get(i)), maze.indexOf(actual.get(i)));
+        }
+    }
+
+    @Test
+    public void ensureRouteEncodingRoundTrips() throws Exception {
+        Maze maze = Maze.fromTxt(mazePath("maze2.txt"));
+        RouteFinder finder = new RouteFinder(maze);
+        while (!finder.step());
+        int moves = finder.getRoute().size() - 1;
+        for (boolean runLength : new boolean[] {false, true}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            RouteCodec.write(maze, finder.getRoute(), out, runLength);
+            if (!runLength) assertEquals(28 + (moves + 3) / 4, out.size());
+            List<Tile> read = RouteCodec.read(maze, new ByteArrayInputStream(out.toByteArray()));
+            assertSameCells(maze, finder.getRoute(), read);
+        }
+    }
+
+    @Test
+    public void ensureExportedRouteCanBeReadBack() throws Exception {
+        Maze maze = Maze.fromTxt(mazePath("maze1.txt"));
+        RouteFinder finder = new RouteFinder(maze, RouteFinder.Mode.BREADTH_FIRST);
+        while (!finder.step());
+        String exported = tempFile(".rte");
+        finder.exportRoute(exported, true);
+        try (InputStream in = Files.newInputStream(Paths.get(exported))) {
+            Maze other = Maze.fromTxt(mazePath("maze1.txt"));
+            List<Tile> read = RouteCodec.read(other, in);
+            assertEquals(finder.getRoute().size(), read.size());
+            assertEquals(other.getEntrance(), read.get(0));
+            assertEquals(other.getExit(), read.get(read.size() - 1));
+        }
+    }
+
+    @Test
+    public void ensureRunLengthEncodingShrinksStraightRoutes() throws Exception {
+        String path = tempFile(".txt");
+        Files.write(Paths.get(path), ("e" + new String(new char[198]).replace('\0', '.') + "x\n").getBytes());
+        Maze maze = Maze.fromTxt(path);
+        RouteFinder finder = new RouteFinder(maze);
+        while (!finder.step());
+        ByteArrayOutputStream packed = new ByteArrayOutputStream();
+        ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        RouteCodec.write(maze, finder.getRoute(), packed, false);
+        RouteCodec.write(maze, finder.getRoute(), runs, true);
+        assertEquals(28 + 50, packed.size());
+        assertEquals(28 + 4, runs.size());
+        assertSameCells(maze, finder.getRoute(), RouteCodec.read(maze, new ByteArrayInputStream(runs.toByteArray())));
+    }
+
+    @Test
+    public void ensureEmptyRouteRoundTrips() throws Exception {
+        Maze maze = Maze.fromTxt(mazePath("maze1.txt"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RouteCodec.write(maze, new ArrayList<>(), out, false);
+        assertTrue(RouteCodec.read(maze, new ByteArrayInputStream(out.toByteArray())).isEmpty());
+    }
+
+    @Test
+    public void ensureRouteEncodingRejectsBadRoutes() throws Exception {
+        Maze maze = Maze.fromTxt(mazePath("maze1.txt"));
+        List<Tile> gap = new ArrayList<>();
+        gap.add(maze.getEntrance());
+        gap.add(maze.getExit());
+        assertThrows(IllegalArgumentException.class, () -> RouteCodec.write(maze, gap, new ByteArrayOutputStream(), false));
+        RouteFinder finder = new RouteFinder(maze);
+        while (!finder.step());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RouteCodec.write(maze, finder.getRoute(), out, false);
+        Maze other = Maze.fromTxt(mazePath("maze2.txt"));
+        assertThrows(IOException.class, () -> RouteCodec.read(other, new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    public void ensureJournalledSolveCanBeResumed() throws Exception {
+        for (RouteFinder.Mode mode : RouteFinder.Mode.values()) {
+            Maze maze = Maze.fromTxt(mazePath("maze2.txt"));
+            String journal = tempFile(".jnl");
+            RouteFinder orig = new RouteFinder(maze, mode);
+            orig.startJournal(journal);
+            orig.step(15);
+            orig.flushJournal();
+            RouteFinder resumed = RouteFinder.resume(maze, journal);
+            assertSame(mode, resumed.getMode());
+            assertEquals(orig.toString(), resumed.toString());
+            while (!orig.step());
+            while (!resumed.step());
+            orig.closeJournal();
+            resumed.closeJournal();
+            assertEquals(orig.getRoute(), resumed.getRoute());
+            RouteFinder replayed = RouteFinder.resume(maze, journal);
+            replayed.closeJournal();
+            assertTrue(replayed.isFinished());
+            assertEquals(orig.toString(), replayed.toString());
+        }
+    }
+
+    @Test
+    public void ensureTornJournalRecordIsIgnored() throws Exception {
+        Maze maze = Maze.fromTxt(mazePath("maze1.txt"));
+        String journal = tempFile(".jnl");
+        RouteFinder orig = new RouteFinder(maze);
+        orig.startJournal(journal);
+        orig.step(6);
+        orig.closeJournal();
+        try (FileOutputStream out = new FileOutputStream(journal, true)) {
+            out.write(new byte[] {1, 0, 0});
+        }
+        RouteFinder resumed = RouteFinder.resume(maze, journal);
+        assertEquals(orig.toString(), resumed.toString());
+        resumed.step(2);
+        resumed.closeJournal();
+        orig.step(2);
+        assertEquals(orig.toString(), RouteFinder.resume(maze, journal).toString());
+    }
+
+    @Test
+    public void ensureBreadthFirstJournalCutMidStepIsFinishedOff() throws Exception {
+        String txt = tempFile(".txt");
+        Files.write(Paths.get(txt), "e.#\n.##\n..x\n".getBytes());
+        Maze maze = Maze.fromTxt(txt);
+        String journal = tempFile(".jnl");
+        RouteFinder orig = new RouteFinder(maze, RouteFinder.Mode.BREADTH_FIRST);
+        orig.startJournal(journal);
+        while (!orig.step());
+        orig.closeJournal();
+        // keep the header, QUEUE of the entrance, EXPAND of the entrance and only the first of its two QUEUE records
+        byte[] bytes = Files.readAllBytes(Paths.get(journal));
+        Files.write(Paths.get(journal), Arrays.copyOf(bytes, 20 + 3 * 5));
+        RouteFinder resumed = RouteFinder.resume(maze, journal);
+        while (!resumed.isFinished()) resumed.step();
+        resumed.closeJournal();
+        assertEquals(5, resumed.getRoute().size());
+        assertEquals(orig.toString(), resumed.toString());
+        RouteFinder replayed = RouteFinder.resume(maze, journal);
+        replayed.closeJournal();
+        assertEquals(orig.toString(), replayed.toString());
+    }
+
+    @Test
+    public void ensureJournalMustStartBeforeFirstStep() throws Exception {
+        RouteFinder finder = new RouteFinder(Maze.fromTxt(mazePath("maze1.txt")));
+        finder.step();
+        assertThrows(IllegalStateException.class, () -> finder.startJournal(tempFile(".jnl")));
+    }
+
+    @Test
+    public void ensureJournalIsNotResumedOnAnotherMaze() throws Exception {
+        String journal = tempFile(".jnl");
+        RouteFinder finder = new RouteFinder(Maze.fromTxt(mazePath("maze1.txt")));
+        finder.startJournal(journal);
+        finder.step(3);
+        finder.closeJournal();
+        assertNull(RouteFinder.resume(Maze.fromTxt(mazePath("maze2.txt")), journal));
+    }
+
+    @Test
+    public void ensureSerialisedMazeKeepsCellsAndEnds() throws Exception {
+        Maze orig = Maze.fromTxt(mazePath("maze2.txt"));
+        Maze copy = roundTrip(orig);
+        assertMazesAreEqual(orig, copy);
+        assertEquals(orig.toString(), copy.toString());
+        assertEquals(orig.indexOf(orig.getEntrance()), copy.indexOf(copy.getEntrance()));
+        assertEquals(orig.indexOf(orig.getExit()), copy.indexOf(copy.getExit()));
+        for (int i = 0; i < orig.getCellCount(); i++) {
+            assertEquals(orig.getPassableMask(i), copy.getPassableMask(i));
+        }
+    }
+
+    @Test
+    public void ensureSerialisedPagedAndOffHeapMazesReadBackPacked() throws Exception {
+        String binary = tempFile(".mzb");
+        Maze.fromTxt(mazePath("maze2.txt")).toBinary(binary);
+        Maze offHeap = Maze.fromTxt(mazePath("maze2.txt"));
+        offHeap.moveOffHeap();
+        try (Maze paged = Maze.openPaged(binary, 8, 2)) {
+            for (Maze maze : new Maze[] {paged, offHeap}) {
+                Maze copy = roundTrip(maze);
+                assertTrue(copy.isPacked());
+                assertMazesAreEqual(maze, copy);
+            }
+        }
+        offHeap.close();
+    }
+
+    @Test
+    public void ensureSerialisedTileKeepsItsCell() throws Exception {
+        Maze maze = Maze.fromTxt(mazePath("maze1.txt"));
+        Object[] copy = roundTrip(new Object[] {maze, maze.getExit()});
+        Maze copied = (Maze) copy[0];
+        Tile exit = (Tile) copy[1];
+        assertSame(Tile.Type.EXIT, exit.getType());
+        assertEquals(copied.getExit(), exit);
+        assertTrue(copied.tileInMaze(exit));
+        assertNotEquals(maze.getExit(), exit);
+    }
+
+    @Test
+    public void ensureSerialisedRouteFinderCarriesOn() throws Exception {
+        for (RouteFinder.Mode mode : RouteFinder.Mode.values()) {
+            Maze maze = Maze.fromTxt(mazePath("maze2.txt"));
+            RouteFinder orig = new RouteFinder(maze, mode);
+            assertEquals(orig.toString(), roundTrip(orig).toString());
+            orig.step(12);
+            RouteFinder copy = roundTrip(orig);
+            assertSame(mode, copy.getMode());
+            assertEquals(orig.toString(), copy.toString());
+            while (!orig.step());
+            while (!copy.step());
+            assertEquals(orig.toString(), copy.toString());
+            assertEquals(orig.getRoute().size(), copy.getRoute().size());
+        }
+    }
+
+    // route files saved by the original RouteFinder, with java serialization of the Tile objects
+    public void assertLegacyRouteFileLoads(String name, int steps) throws Exception {
+        RouteFinder expected = new RouteFinder(Maze.fromTxt(mazePath("maze1.txt")));
+        expected.step(steps);
+        RouteFinder loaded = RouteFinder.load(Paths.get(TEST_ROUTES_DIR.toString(), "legacy", name).toString());
+        assertNotNull(loaded);
+        assertEquals(expected.toString(), loaded.toString());
+        assertEquals(expected.getRoute().size(), loaded.getRoute().size());
+        while (!expected.step());
+        while (!loaded.step());
+        assertEquals(expected.toString(), loaded.toString());
+        RouteFinder copy = roundTrip(loaded);
+        assertEquals(loaded.toString(), copy.toString());
+    }
+
+    @Test
+    public void ensureLegacyRouteFileStillLoads() throws Exception {
+        assertLegacyRouteFileLoads("route1_midState.route", 7);
+    }
+
+    @Test
+    public void ensureLegacyStartStateStillLoads() throws Exception {
+        assertLegacyRouteFileLoads("route1_initialState.route", 0);
+    }
+
+    @Test
+    public void ensureLegacySavedStateStillLoads() throws Exception {
+        assertLegacyRouteFileLoads("route1_savedState.route", 3);
+    }
+}
@@ -0,0 +1,532 @@
+package tests.dev.functional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import maze.Maze;
+import maze.Tile;
+import maze.routing.AStarRouteFinder;
+import maze.routing.BidirectionalRouteFinder;
+import maze.routing.GridRouteFinder;
+import maze.routing.JumpPointRouteFinder;
+import maze.routing.NoRouteFoundException;
+import maze.routing.ParallelRouteFinder;
+import maze.routing.ParallelSearchStats;
+import maze.routing.RouteFinder;
+import maze.routing.SolveResult;
+import maze.routing.StepListener;
+
+public class SolverTest {
+
+    private static Path WORKING_DIR = Paths.get("");
+    private static Path TEST_MAZES_DIR = Paths.get(WORKING_DIR.toString(), "resources", "mazes");
+
+    // ~~~~~~~~~~ Utility Functions ~~~~~~~~~~
+
+    public Maze setupForMaze(String name) {
+        Maze rtn = null;
+        Path filePath = Paths.get(TEST_MAZES_DIR.toString(), name);
+        try {
+            rtn = Maze.fromTxt(filePath.toString());
+        } catch (Exception e) { fail(); }
+        return rtn;
+    }
+
+    public Maze setupForRows(String... rows) {
+        Maze rtn = null;
+        try {
+            Path file = Files.createTempFile("solver", ".txt");
+            file.toFile().deleteOnExit();
+            Files.write(file, String.join("\n", rows).getBytes());
+            rtn = Maze.fromTxt(file.toString());
+        } catch (Exception e) { fail(); }
+        return rtn;
+    }
+
+    // open room with the exit a few cells from the entrance
+    public Maze setupForOpenRoom() {
+        return setupForRows(
+            "..........",
+            "..........",
+            "..........",
+            "...e...x..",
+            "..........",
+            "..........",
+            "..........");
+    }
+
+    public Maze setupForWalledOffExit() {
+        return setupForRows(
+            "e..#.",
+            "...#x",
+            "...#.");
+    }
+
+    public int stepToExit(GridRouteFinder finder) {
+        int steps = 0;
+        try {
+            while (!finder.step()) steps++;
+        } catch (NoRouteFoundException e) { fail(); }
+        return steps + 1;
+    }
+
+    public int stepToExit(RouteFinder finder) {
+        int steps = 0;
+        try {
+            while (!finder.step()) steps++;
+        } catch (NoRouteFoundException e) { fail(); }
+        return steps + 1;
+    }
+
+    // number of tiles on a shortest route, worked out with a plain search over getAdjacentTile
+    public int shortestRouteLength(Maze maze) {
+        Map<Tile, Integer> distance = new HashMap<>();
+        ArrayDeque<Tile> queue = new ArrayDeque<>();
+        distance.put(maze.getEntrance(), 1);
+        queue.add(maze.getEntrance());
+        while (!queue.isEmpty()) {
+            Tile tile = queue.remove();
+            if (tile.equals(maze.getExit())) return distance.get(tile);
+            for (Maze.Direction d : Maze.Direction.values()) {
+                Tile next = maze.getAdjacentTile(tile, d);
+                if (next != null && next.isNavigable() && !distance.containsKey(next)) {
+                    distance.put(next, distance.get(tile) + 1);
+                    queue.add(next);
+                }
+            }
+        }
+        return -1;
+    }
+
+    public int countCells(RouteFinder finder, RouteFinder.CellState state) {
+        int count = 0;
+        Maze maze = finder.getMaze();
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            if (finder.getCellState(maze.getTile(cell)) == state) count++;
+        }
+        return count;
+    }
+
+    public void assertRouteIsContiguous(Maze maze, List<Tile> route) {
+        assertEquals(maze.getEntrance(), route.get(0));
+        assertEquals(maze.getExit(), route.get(route.size() - 1));
+        for (int i = 1; i < route.size(); i++) {
+            boolean adjacent = false;
+            for (Maze.Direction d : Maze.Direction.values()) {
+                if (route.get(i).equals(maze.getAdjacentTile(route.get(i - 1), d))) adjacent = true;
+            }
+            assertTrue(adjacent);
+            assertTrue(route.get(i).isNavigable());
+        }
+    }
+
+    // ~~~~~~~~~~ Functionality tests ~~~~~~~~~~
+
+    @Test
+    public void ensureDefaultModeIsDepthFirst() {
+        assertSame(RouteFinder.Mode.DEPTH_FIRST, new RouteFinder(setupForMaze("maze1.txt")).getMode());
+        Maze maze = setupForMaze("maze1.txt");
+        assertSame(RouteFinder.Mode.BREADTH_FIRST, new RouteFinder(maze, RouteFinder.Mode.BREADTH_FIRST).getMode());
+    }
+
+    @Test
+    public void ensureBreadthFirstFindsShortestRoute() {
+        for (String name : new String[] {"maze1.txt", "maze2.txt"}) {
+            Maze maze = setupForMaze(name);
+            RouteFinder finder = new RouteFinder(maze, RouteFinder.Mode.BREADTH_FIRST);
+            stepToExit(finder);
+            assertTrue(finder.isFinished());
+            assertRouteIsContiguous(maze, finder.getRoute());
+            assertEquals(shortestRouteLength(maze), finder.getRoute().size());
+        }
+    }
+
+    @Test
+    public void ensureBreadthFirstRouteIsNoLongerThanDepthFirst() {
+        Maze maze = setupForMaze("maze2.txt");
+        RouteFinder depthFirst = new RouteFinder(maze);
+        RouteFinder breadthFirst = new RouteFinder(maze, RouteFinder.Mode.BREADTH_FIRST);
+        stepToExit(depthFirst);
+        stepToExit(breadthFirst);
+        assertTrue(breadthFirst.getRoute().size() <= depthFirst.getRoute().size());
+    }
+
+    @Test
+    public void ensureBreadthFirstStepsOneTileAtATime() {
+        Maze maze = setupForMaze("maze1.txt");
+        RouteFinder finder = new RouteFinder(maze, RouteFinder.Mode.BREADTH_FIRST);
+        try {
+            assertFalse(finder.step());
+            assertEquals(1, finder.getRoute().size());
+            assertEquals(maze.getEntrance(), finder.getRoute().get(0));
+            assertFalse(finder.isFinished());
+        } catch (NoRouteFoundException e) { fail(); }
+        stepToExit(finder);
+        try {
+            assertFalse(finder.step());
+        } catch (NoRouteFoundException e) { fail(); }
+        assertTrue(finder.isFinished());
+    }
+
+    @Test
+    public void ensureBreadthFirstRouteIsRenderedWithStars() {
+        Maze maze = setupForMaze("maze1.txt");
+        RouteFinder finder = new RouteFinder(maze, RouteFinder.Mode.BREADTH_FIRST);
+        stepToExit(finder);
+        String rendered = finder.toString();
+        int stars = 0;
+        for (char c : rendered.toCharArray()) if (c == '*') stars++;
+        assertEquals(finder.getRoute().size(), stars);
+    }
+
+    @Test
+    public void ensureAStarFindsShortestRoute() {
+        for (String name : new String[] {"maze1.txt", "maze2.txt"}) {
+            Maze maze = setupForMaze(name);
+            AStarRouteFinder finder = new AStarRouteFinder(maze);
+            assertFalse(finder.isFinished());
+            int steps = stepToExit(finder);
+            assertTrue(finder.isFinished());
+            assertEquals(steps, finder.getNodesExpanded());
+            assertRouteIsContiguous(maze, finder.getRoute());
+            assertEquals(shortestRouteLength(maze), finder.getRoute().size());
+        }
+    }
+
+    @Test
+    public void ensureAStarExpandsFewerCellsThanBreadthFirstInOpenRoom() {
+        Maze maze = setupForOpenRoom();
+        AStarRouteFinder aStar = new AStarRouteFinder(maze);
+        RouteFinder breadthFirst = new RouteFinder(maze, RouteFinder.Mode.BREADTH_FIRST);
+        stepToExit(aStar);
+        int breadthFirstSteps = stepToExit(breadthFirst);
+        assertEquals(5, aStar.getRoute().size());
+        assertEquals(5, aStar.getNodesExpanded());
+        assertTrue(aStar.getNodesExpanded() < breadthFirstSteps);
+    }
+
+    @Test
+    public void ensureAStarThrowsWhenExitIsUnreachable() {
+        AStarRouteFinder finder = new AStarRouteFinder(setupForWalledOffExit());
+        try {
+            while (!finder.step()) { }
+            fail();
+        } catch (NoRouteFoundException e) {
+            assertFalse(finder.isFinished());
+            assertEquals(9, finder.getNodesExpanded());
+        }
+    }
+
+    @Test
+    public void ensureBidirectionalFindsShortestRoute() {
+        for (String name : new String[] {"maze1.txt", "maze2.txt"}) {
+            Maze maze = setupForMaze(name);
+            BidirectionalRouteFinder finder = new BidirectionalRouteFinder(maze);
+            int steps = stepToExit(finder);
+            assertTrue(finder.isFinished());
+            assertEquals(steps, finder.getNodesExpanded());
+            assertRouteIsContiguous(maze, finder.getRoute());
+            assertEquals(shortestRouteLength(maze), finder.getRoute().size());
+        }
+    }
+
+    @Test
+    public void ensureBidirectionalFindsShortestRouteInOpenRoom() {
+        Maze maze = setupForOpenRoom();
+        BidirectionalRouteFinder finder = new BidirectionalRouteFinder(maze);
+        int steps = stepToExit(finder);
+        assertRouteIsContiguous(maze, finder.getRoute());
+        assertEquals(5, finder.getRoute().size());
+        assertTrue(steps < stepToExit(new RouteFinder(maze, RouteFinder.Mode.BREADTH_FIRST)));
+    }
+
+    @Test
+    public void ensureBidirectionalThrowsWhenExitIsUnreachable() {
+        BidirectionalRouteFinder finder = new BidirectionalRouteFinder(setupForWalledOffExit());
+        try {
+            while (!finder.step()) { }
+            fail();
+        } catch (NoRouteFoundException e) {
+            assertFalse(finder.isFinished());
+        }
+    }
+
+    @Test
+    public void ensureJumpPointFindsShortestRoute() {
+        for (String name : new String[] {"maze1.txt", "maze2.txt"}) {
+            Maze maze = setupForMaze(name);
+            JumpPointRouteFinder finder = new JumpPointRouteFinder(maze);
+            int steps = stepToExit(finder);
+            assertTrue(finder.isFinished());
+            assertEquals(steps, finder.getNodesExpanded());
+            assertRouteIsContiguous(maze, finder.getRoute());
+            assertEquals(shortestRouteLength(maze), finder.getRoute().size());
+        }
+    }
+
+    @Test
+    public void ensureJumpPointExpandsFewerCellsThanAStarInOpenRoom() {
+        Maze maze = setupForRows(
+            "e.........",
+            "..........",
+            "..........",
+            "..........",
+            "..........",
+            "..........",
+            ".........x");
+        JumpPointRouteFinder jumpPoint = new JumpPointRouteFinder(maze);
+        AStarRouteFinder aStar = new AStarRouteFinder(maze);
+        stepToExit(jumpPoint);
+        stepToExit(aStar);
+        assertRouteIsContiguous(maze, jumpPoint.getRoute());
+        assertEquals(16, jumpPoint.getRoute().size());
+        assertTrue(jumpPoint.getNodesExpanded() < aStar.getNodesExpanded());
+    }
+
+    @Test
+    public void ensureJumpPointThrowsWhenExitIsUnreachable() {
+        JumpPointRouteFinder finder = new JumpPointRouteFinder(setupForWalledOffExit());
+        try {
+            while (!finder.step()) { }
+            fail();
+        } catch (NoRouteFoundException e) {
+            assertFalse(finder.isFinished());
+        }
+    }
+
+    @Test
+    public void ensureParallelFindsShortestRoute() {
+        for (String name : new String[] {"maze1.txt", "maze2.txt"}) {
+            Maze maze = setupForMaze(name);
+            ParallelRouteFinder finder = new ParallelRouteFinder(maze);
+            int steps = stepToExit(finder);
+            assertTrue(finder.isFinished());
+            assertRouteIsContiguous(maze, finder.getRoute());
+            assertEquals(shortestRouteLength(maze), finder.getRoute().size());
+            assertEquals(steps, finder.getStats().getLevels());
+            assertEquals(finder.getRoute().size() - 1, steps);
+        }
+    }
+
+    @Test
+    public void ensureParallelFindsShortestRouteInLargeOpenRoom() {
+        String[] rows = new String[300];
+        for (int y = 0; y < rows.length; y++) {
+            StringBuilder row = new StringBuilder();
+            for (int x = 0; x < 300; x++) row.append(x == 150 && y == 150 ? 'e' : x == 299 && y == 0 ? 'x' : '.');
+            rows[y] = row.toString();
+        }
+        Maze maze = setupForRows(rows);
+        ParallelRouteFinder finder = new ParallelRouteFinder(maze);
+        stepToExit(finder);
+        assertRouteIsContiguous(maze, finder.getRoute());
+        assertEquals(300, finder.getRoute().size());
+    }
+
+    @Test
+    public void ensureParallelStatsReportSpeedupOnceMeasured() {
+        ParallelRouteFinder finder = new ParallelRouteFinder(setupForMaze("maze2.txt"));
+        stepToExit(finder);
+        ParallelSearchStats stats = finder.getStats();
+        assertEquals(-1, stats.getSequentialNanos());
+        assertEquals(0, stats.getSpeedup(), 0);
+        assertEquals(finder.getNodesExpanded(), stats.getCellsExpanded());
+        finder.measureSequential();
+        stats = finder.getStats();
+        assertTrue(stats.getSequentialNanos() > 0);
+        assertTrue(stats.getSpeedup() > 0);
+    }
+
+    @Test
+    public void ensureParallelThrowsWhenExitIsUnreachable() {
+        ParallelRouteFinder finder = new ParallelRouteFinder(setupForWalledOffExit());
+        try {
+            while (!finder.step()) { }
+            fail();
+        } catch (NoRouteFoundException e) {
+            assertFalse(finder.isFinished());
+        }
+    }
+
+    @Test
+    public void ensureSolveGivesSameRouteAsStepping() {
+        for (RouteFinder.Mode mode : RouteFinder.Mode.values()) {
+            for (String name : new String[] {"maze1.txt", "maze2.txt"}) {
+                Maze maze = setupForMaze(name);
+                RouteFinder stepped = new RouteFinder(maze, mode);
+                int steps = stepToExit(stepped);
+                RouteFinder solved = new RouteFinder(maze, mode);
+                SolveResult result = null;
+                try {
+                    result = solved.solve();
+                } catch (NoRouteFoundException e) { fail(); }
+                assertTrue(result.isFinished());
+                assertTrue(solved.isFinished());
+                assertEquals(steps, result.getSteps());
+                assertEquals(stepped.getRoute(), result.getRoute());
+                assertEquals(stepped.getRoute(), solved.getRoute());
+                assertEquals(countCells(stepped, RouteFinder.CellState.DEAD_END), result.getDeadEnds());
+                assertEquals(stepped.toString(), solved.toString());
+            }
+        }
+    }
+
+    @Test
+    public void ensureSolveStopsAtStepLimitAndStepCarriesOn() {
+        Maze maze = setupForMaze("maze2.txt");
+        RouteFinder stepped = new RouteFinder(maze);
+        int steps = stepToExit(stepped);
+        RouteFinder solved = new RouteFinder(maze);
+        try {
+            SolveResult result = solved.solve(5);
+            assertFalse(result.isFinished());
+            assertEquals(5, result.getSteps());
+            assertEquals(result.getRoute(), solved.getRoute());
+        } catch (NoRouteFoundException e) { fail(); }
+        assertEquals(steps - 5, stepToExit(solved));
+        assertEquals(stepped.getRoute(), solved.getRoute());
+    }
+
+    @Test
+    public void ensureSolveThrowsWhenExitIsUnreachable() {
+        for (RouteFinder.Mode mode : RouteFinder.Mode.values()) {
+            RouteFinder finder = new RouteFinder(setupForWalledOffExit(), mode);
+            try {
+                finder.solve();
+                fail();
+            } catch (NoRouteFoundException e) {
+                assertFalse(finder.isFinished());
+                assertTrue(finder.getRoute().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void ensureCellStatesMatchRouteAndDeadEnds() {
+        for (RouteFinder.Mode mode : RouteFinder.Mode.values()) {
+            Maze maze = setupForMaze("maze2.txt");
+            RouteFinder finder = new RouteFinder(maze, mode);
+            assertSame(RouteFinder.CellState.UNVISITED, finder.getCellState(maze.getEntrance()));
+            stepToExit(finder);
+            List<Tile> route = finder.getRoute();
+            for (Tile t : route) assertSame(RouteFinder.CellState.ON_ROUTE, finder.getCellState(t));
+            assertEquals(route.size(), countCells(finder, RouteFinder.CellState.ON_ROUTE));
+            String rendered = finder.toString();
+            int dashes = 0;
+            for (char c : rendered.toCharArray()) if (c == '-') dashes++;
+            assertEquals(dashes, countCells(finder, RouteFinder.CellState.DEAD_END));
+        }
+    }
+
+    @Test
+    public void ensureDepthFirstDoesNotReenterEntrance() {
+        RouteFinder finder = new RouteFinder(setupForRows(
+            "e.#",
+            "###",
+            "#.x"));
+        try {
+            assertFalse(finder.step());
+            assertEquals(2, finder.getRoute().size());
+            assertFalse(finder.step());
+            assertEquals(1, finder.getRoute().size());
+            assertFalse(finder.step());
+            assertTrue(finder.getRoute().isEmpty());
+            finder.step();
+            fail();
+        } catch (NoRouteFoundException e) {
+            assertEquals(2, countCells(finder, RouteFinder.CellState.DEAD_END));
+        }
+    }
+
+    @Test
+    public void ensureRouteIsReadOnlyViewThatFollowsSteps() {
+        for (RouteFinder.Mode mode : RouteFinder.Mode.values()) {
+            RouteFinder finder = new RouteFinder(setupForMaze("maze1.txt"), mode);
+            List<Tile> route = finder.getRoute();
+            assertTrue(route.isEmpty());
+            stepToExit(finder);
+            assertEquals(finder.getRoute(), route);
+            assertEquals(finder.getMaze().getExit(), route.get(route.size() - 1));
+            try {
+                route.add(finder.getMaze().getEntrance());
+                fail();
+            } catch (UnsupportedOperationException e) { }
+            try {
+                route.remove(0);
+                fail();
+            } catch (UnsupportedOperationException e) { }
+        }
+    }
+
+    @Test
+    public void ensureCellStateByIndexMatchesCellStateByTile() {
+        Maze maze = setupForMaze("maze2.txt");
+        RouteFinder finder = new RouteFinder(maze);
+        try {
+            finder.solve(30);
+        } catch (NoRouteFoundException e) { fail(); }
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            assertSame(finder.getCellState(maze.getTile(cell)), finder.getCellState(cell));
+        }
+        assertSame(RouteFinder.CellState.UNVISITED, finder.getCellState(-1));
+        assertSame(RouteFinder.CellState.UNVISITED, finder.getCellState(maze.getCellCount()));
+    }
+
+    @Test
+    public void ensureStepNMatchesSingleSteps() {
+        for (RouteFinder.Mode mode : RouteFinder.Mode.values()) {
+            Maze maze = setupForMaze("maze2.txt");
+            RouteFinder single = new RouteFinder(maze, mode);
+            RouteFinder batched = new RouteFinder(maze, mode);
+            try {
+                for (int i = 0; i < 7; i++) single.step();
+                assertFalse(batched.step(7));
+                assertEquals(single.toString(), batched.toString());
+                assertTrue(batched.step(100000));
+                assertFalse(batched.step(10));
+            } catch (NoRouteFoundException e) { fail(); }
+            stepToExit(single);
+            assertEquals(single.getRoute(), batched.getRoute());
+        }
+    }
+
+    @Test
+    public void ensureStepUntilStopsWhenPredicateHolds() {
+        RouteFinder finder = new RouteFinder(setupForMaze("maze2.txt"));
+        try {
+            assertFalse(finder.stepUntil(r -> r.getRoute().size() == 5));
+            assertEquals(5, finder.getRoute().size());
+            assertTrue(finder.stepUntil(r -> false));
+        } catch (NoRouteFoundException e) { fail(); }
+        assertTrue(finder.isFinished());
+    }
+
+    @Test
+    public void ensureStepListenerIsCalledEveryKSteps() {
+        RouteFinder finder = new RouteFinder(setupForMaze("maze2.txt"));
+        List<long[]> calls = new ArrayList<>();
+        StepListener listener = (steps, routeLength, cellsVisited) -> calls.add(new long[] {steps, routeLength, cellsVisited});
+        finder.setStepListener(listener, 3);
+        try {
+            finder.step(10);
+        } catch (NoRouteFoundException e) { fail(); }
+        assertEquals(3, calls.size());
+        assertEquals(3, calls.get(0)[0]);
+        assertEquals(9, calls.get(2)[0]);
+        for (long[] call : calls) assertTrue(call[1] > 0 && call[2] >= call[1]);
+        finder.setStepListener(null, 0);
+        try {
+            finder.step(10);
+        } catch (NoRouteFoundException e) { fail(); }
+        assertEquals(3, calls.size());
+    }
+}